@@ -0,0 +1,92 @@
+package com.davidvlijmincx.lio.api;
+
+import java.time.Duration;
+
+/**
+ * When a ring submits the requests that were prepared but not submitted yet, on top of every {@link JUring#submit()}.
+ * A ring always submits when its submission queue is full and before it blocks waiting for results. The size and age
+ * of a batch are checked whenever a request is prepared or results are reaped, a ring has no timer of its own.
+ * {@link JUring#flushStats()} counts why the ring submitted.
+ */
+public final class BatchPolicy {
+
+    private static final BatchPolicy WHEN_FULL = new BatchPolicy(Integer.MAX_VALUE, Integer.MAX_VALUE, 0, false);
+
+    private final int minSize;
+    private final int maxSize;
+    private final long maxAgeNanos;
+    private final boolean adaptive;
+
+    private BatchPolicy(int minSize, int maxSize, long maxAgeNanos, boolean adaptive) {
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.maxAgeNanos = maxAgeNanos;
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * Only submits when the queue is full or the ring waits, the default.
+     */
+    public static BatchPolicy whenFull() {
+        return WHEN_FULL;
+    }
+
+    /**
+     * Submits once {@code size} requests are waiting.
+     */
+    public static BatchPolicy of(int size) {
+        return new BatchPolicy(checkSize(size), size, 0, false);
+    }
+
+    /**
+     * Submits once {@code size} requests are waiting or the first of them waited for {@code maxAge}.
+     */
+    public static BatchPolicy of(int size, Duration maxAge) {
+        return new BatchPolicy(checkSize(size), size, maxAgeNanos(maxAge), false);
+    }
+
+    /**
+     * Starts with batches of {@code minSize}. A batch that fills up doubles the next one, up to {@code maxSize}, and a
+     * batch that reached {@code maxAge} first halves it, so batches grow under load and shrink when the ring is quiet.
+     */
+    public static BatchPolicy adaptive(int minSize, int maxSize, Duration maxAge) {
+        if (maxSize < checkSize(minSize)) {
+            throw new IllegalArgumentException("The largest batch cannot be smaller than the smallest: " + maxSize);
+        }
+        return new BatchPolicy(minSize, maxSize, maxAgeNanos(maxAge), true);
+    }
+
+    int minSize() {
+        return minSize;
+    }
+
+    int maxSize() {
+        return maxSize;
+    }
+
+    long maxAgeNanos() {
+        return maxAgeNanos;
+    }
+
+    boolean hasMaxAge() {
+        return maxAgeNanos > 0;
+    }
+
+    boolean adaptive() {
+        return adaptive;
+    }
+
+    private static int checkSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("A batch needs at least one request: " + size);
+        }
+        return size;
+    }
+
+    private static long maxAgeNanos(Duration maxAge) {
+        if (maxAge.isNegative() || maxAge.isZero()) {
+            throw new IllegalArgumentException("The age of a batch has to be positive: " + maxAge);
+        }
+        return maxAge.toNanos();
+    }
+}
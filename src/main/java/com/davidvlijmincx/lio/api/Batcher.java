@@ -0,0 +1,73 @@
+package com.davidvlijmincx.lio.api;
+
+/**
+ * Applies the {@link BatchPolicy} of a ring and counts why the ring submitted. Requests are counted when they start,
+ * so a batch never ends between the entries of one request.
+ */
+final class Batcher {
+
+    enum Reason {
+        EXPLICIT,
+        FULL,
+        SIZE,
+        AGE,
+        WAIT
+    }
+
+    private final BatchPolicy policy;
+    private final long[] flushes = new long[Reason.values().length];
+    private int target;
+    private int pending;
+    private long firstPendingNanos;
+
+    Batcher(BatchPolicy policy) {
+        this.policy = policy;
+        this.target = policy.minSize();
+    }
+
+    void requestStarted() {
+        if (pending++ == 0 && policy.hasMaxAge()) {
+            firstPendingNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Why the waiting requests should be submitted now, or null when they can wait for more.
+     */
+    Reason due() {
+        if (pending == 0) {
+            return null;
+        }
+        if (pending >= target) {
+            return Reason.SIZE;
+        }
+        if (policy.hasMaxAge() && System.nanoTime() - firstPendingNanos >= policy.maxAgeNanos()) {
+            return Reason.AGE;
+        }
+        return null;
+    }
+
+    void flushed(Reason reason) {
+        flushes[reason.ordinal()]++;
+        pending = 0;
+        if (policy.adaptive()) {
+            if (reason == Reason.SIZE) {
+                target = (int) Math.min(policy.maxSize(), target * 2L);
+            } else if (reason == Reason.AGE) {
+                target = Math.max(policy.minSize(), target / 2);
+            }
+        }
+    }
+
+    /**
+     * The number of requests the next batch waits for.
+     */
+    int target() {
+        return target;
+    }
+
+    FlushStats stats() {
+        return new FlushStats(flushes[Reason.EXPLICIT.ordinal()], flushes[Reason.FULL.ordinal()],
+                flushes[Reason.SIZE.ordinal()], flushes[Reason.AGE.ordinal()], flushes[Reason.WAIT.ordinal()]);
+    }
+}
@@ -0,0 +1,27 @@
+package com.davidvlijmincx.lio.api;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Owner of the memory a read completed into, it takes the buffer back when the result is freed.
+ */
+@FunctionalInterface
+public interface BufferOwner {
+
+    /**
+     * Buffers JUring allocated with malloc for a single read.
+     */
+    BufferOwner MALLOC = (buffer, flags) -> NativeDispatcher.C.free(buffer);
+
+    /**
+     * Buffers owned by the caller, or registered with the ring, that must not be freed by JUring.
+     */
+    BufferOwner CALLER = (buffer, flags) -> {
+    };
+
+    /**
+     * @param buffer the buffer the read completed into
+     * @param flags  the flags of the completion queue entry of the read
+     */
+    void release(MemorySegment buffer, int flags);
+}
@@ -0,0 +1,120 @@
+package com.davidvlijmincx.lio.api;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.VarHandle;
+
+import static java.lang.foreign.ValueLayout.*;
+
+/**
+ * Group of buffers the kernel picks from for reads prepared with {@link JUring#prepareRead(FileDescriptor, BufferRing, int, long, SqeOptions...)}.
+ * Memory is bounded by the number of buffers in the ring instead of the number of reads in flight.
+ * <p>
+ * A selected buffer belongs to the caller until it is handed back with {@link #recycle(int)} or by freeing the
+ * {@link PooledReadResult}. Recycling is not thread safe, recycle from the thread that reaps the ring.
+ * {@snippet lang = c:
+ * struct io_uring_buf {
+ *     __u64 addr;    // 0
+ *     __u32 len;     // 8
+ *     __u16 bid;     // 12
+ *     __u16 resv;    // 14, the tail of the ring in the first entry
+ * }
+ *}
+ */
+public final class BufferRing implements BufferOwner, AutoCloseable {
+
+    private static final long BUF_SIZE = 16;
+    private static final long ADDR = 0;
+    private static final long LEN = 8;
+    private static final long BID = 12;
+    private static final long TAIL = 14;
+    private static final int MAX_ENTRIES = 1 << 15;
+
+    private static final VarHandle TAIL_HANDLE = JAVA_SHORT.varHandle();
+
+    private final LibUringDispatcher ioUring;
+    private final MemorySegment bufRing;
+    private final MemorySegment buffers;
+    private final int groupId;
+    private final int entries;
+    private final int bufferSize;
+    private final int mask;
+    private short tail;
+
+    BufferRing(LibUringDispatcher ioUring, MemorySegment bufRing, int groupId, int entries, int bufferSize) {
+        this.ioUring = ioUring;
+        this.bufRing = bufRing.reinterpret(entries * BUF_SIZE);
+        this.buffers = NativeDispatcher.C.malloc((long) entries * bufferSize);
+        this.groupId = groupId;
+        this.entries = entries;
+        this.bufferSize = bufferSize;
+        this.mask = entries - 1;
+
+        for (int bufferId = 0; bufferId < entries; bufferId++) {
+            add(bufferId, bufferId);
+        }
+        publish(entries);
+    }
+
+    static void checkEntries(int entries) {
+        if (entries <= 0 || entries > MAX_ENTRIES || Integer.bitCount(entries) != 1) {
+            throw new IllegalArgumentException("Entries must be a power of two up to " + MAX_ENTRIES + ": " + entries);
+        }
+    }
+
+    public int groupId() {
+        return groupId;
+    }
+
+    public int entries() {
+        return entries;
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    public MemorySegment buffer(int bufferId) {
+        return buffers.asSlice((long) checkBufferId(bufferId) * bufferSize, bufferSize);
+    }
+
+    /**
+     * Hands a selected buffer back to the kernel.
+     */
+    public void recycle(int bufferId) {
+        add(checkBufferId(bufferId), 0);
+        publish(1);
+    }
+
+    @Override
+    public void release(MemorySegment buffer, int flags) {
+        if ((flags & PooledReadResult.IORING_CQE_F_BUFFER) != 0) {
+            recycle(flags >>> PooledReadResult.IORING_CQE_BUFFER_SHIFT);
+        }
+    }
+
+    @Override
+    public void close() {
+        ioUring.freeBufferRing(bufRing, entries, groupId);
+        NativeDispatcher.C.free(buffers);
+    }
+
+    private void add(int bufferId, int offset) {
+        long buf = ((tail + offset) & mask) * BUF_SIZE;
+        bufRing.set(JAVA_LONG, buf + ADDR, buffers.address() + (long) bufferId * bufferSize);
+        bufRing.set(JAVA_INT, buf + LEN, bufferSize);
+        bufRing.set(JAVA_SHORT, buf + BID, (short) bufferId);
+    }
+
+    // the tail shares the first entry with its resv field, so it is only written after the entries are filled
+    private void publish(int count) {
+        tail = (short) (tail + count);
+        TAIL_HANDLE.setRelease(bufRing, TAIL, tail);
+    }
+
+    private int checkBufferId(int bufferId) {
+        if (bufferId < 0 || bufferId >= entries) {
+            throw new IllegalArgumentException("Buffer id out of range: " + bufferId);
+        }
+        return bufferId;
+    }
+}
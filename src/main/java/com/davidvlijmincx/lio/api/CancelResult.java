@@ -0,0 +1,9 @@
+package com.davidvlijmincx.lio.api;
+
+/**
+ * Completion of a cancel. {@code result} is the number of cancelled operations when every match was cancelled,
+ * 0 when the single match was cancelled, {@code -ENOENT} when nothing matched and {@code -EALREADY} when the
+ * operation was already running and could not be stopped.
+ */
+public record CancelResult(long id, int result) implements Result {
+}
@@ -0,0 +1,233 @@
+package com.davidvlijmincx.lio.api;
+
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
+/**
+ * Builds a sequence of linked operations on direct descriptors that is submitted as a unit, like
+ * open &rarr; read &rarr; close. Each operation only starts once the previous one completed, and a failing operation
+ * cancels the rest of the chain. The link into a {@link #closeDirect(int)} is a hard link, so the descriptor is
+ * closed even when a read before it failed.
+ * <p>
+ * The chain completes with a single {@link ChainResult} under the id returned by {@link #prepare()}, the
+ * completions of the operations in between are absorbed.
+ * <p>
+ * A chain holds at most 255 operations, adding one more throws an {@link IllegalStateException}.
+ */
+public final class Chain {
+
+    private static final long RESULT_MASK = 0xFFFF_FFFFL;
+    private static final int FAILED_STEP_SHIFT = 32;
+    private static final int RESULT_STEP_SHIFT = 40;
+    private static final int LAST_STEP_SHIFT = 48;
+    private static final int STEP_MASK = 0xFF;
+    // the failed step is stored plus one in 8 bits, so the highest step the user data can carry is left out
+    private static final int MAX_OPERATIONS = RequestSlots.MAX_STEPS - 1;
+
+    private final JUring jUring;
+    private final List<Step> steps = new ArrayList<>();
+    private boolean skipIntermediateCompletions;
+    private boolean hardLink;
+
+    Chain(JUring jUring) {
+        this.jUring = jUring;
+    }
+
+    /**
+     * Opens the file into the registered file table at {@code fileIndex}.
+     */
+    public Chain openDirect(String filePath, int flags, int mode, int fileIndex) {
+        return add(new OpenDirect(filePath.getBytes(), flags, mode, fileIndex));
+    }
+
+    /**
+     * Reads from the registered file at {@code fileIndex} into a buffer owned by the caller.
+     */
+    public Chain read(int fileIndex, MemorySegment buffer, long offset) {
+        return add(new Read(fileIndex, buffer, offset));
+    }
+
+    /**
+     * Reads from the registered file at {@code fileIndex} into the registered buffer at {@code bufferIndex}.
+     */
+    public Chain readFixed(int fileIndex, int readSize, long offset, int bufferIndex) {
+        MemorySegment buffer = jUring.registeredBuffer(bufferIndex);
+        if (readSize > buffer.byteSize()) {
+            throw new IllegalArgumentException("Read size exceeds registered buffer size");
+        }
+        return add(new ReadFixed(fileIndex, buffer, readSize, offset, bufferIndex));
+    }
+
+    public Chain closeDirect(int fileIndex) {
+        return add(new CloseDirect(fileIndex));
+    }
+
+    /**
+     * Only posts a completion for operations in between when they fail, using {@code IOSQE_CQE_SKIP_SUCCESS}.
+     * The last read and the last operation always post theirs.
+     */
+    public Chain skipIntermediateCompletions() {
+        this.skipIntermediateCompletions = true;
+        return this;
+    }
+
+    /**
+     * Links every operation with {@code IOSQE_IO_HARDLINK}, so a failing operation does not cancel the rest.
+     */
+    public Chain hardLink() {
+        this.hardLink = true;
+        return this;
+    }
+
+    /**
+     * Puts every operation of the chain in the submission queue, or none of them when they do not fit.
+     *
+     * @return the id the {@link ChainResult} completes under
+     */
+    public long prepare() {
+        if (steps.isEmpty()) {
+            throw new IllegalStateException("A chain needs at least one operation");
+        }
+
+        LibUringDispatcher ioUring = jUring.ioUring();
+        ioUring.reserve(steps.size());
+
+        int lastStep = steps.size() - 1;
+        int resultStep = resultStep();
+        MemorySegment paths = copyPaths();
+        long id = ioUring.newRequest(OperationType.CHAIN, paths);
+        ioUring.initChain(id, state(resultStep, lastStep));
+
+        long pathOffset = 0;
+        for (int i = 0; i <= lastStep; i++) {
+            byte flags = flags(i, resultStep, lastStep);
+            long userData = RequestSlots.withStep(id, i);
+
+            switch (steps.get(i)) {
+                case OpenDirect o -> {
+                    ioUring.prepareOpenDirectAt(paths.asSlice(pathOffset), o.flags, o.mode, o.fileIndex, flags, userData);
+                    pathOffset += o.path.length + 1;
+                }
+                case Read r -> ioUring.prepareRead(r.fileIndex, r.buffer, r.offset, flags, userData);
+                case ReadFixed r -> ioUring.prepareReadFixed(r.fileIndex, r.buffer, r.readSize, r.offset, r.bufferIndex, flags, userData);
+                case CloseDirect c -> ioUring.prepareCloseDirect(c.fileIndex, flags, userData);
+            }
+        }
+
+        steps.clear();
+        return id;
+    }
+
+    private Chain add(Step step) {
+        if (steps.size() == MAX_OPERATIONS) {
+            throw new IllegalStateException("A chain holds at most " + MAX_OPERATIONS + " operations");
+        }
+        steps.add(step);
+        return this;
+    }
+
+    private int resultStep() {
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            if (steps.get(i) instanceof Read || steps.get(i) instanceof ReadFixed) {
+                return i;
+            }
+        }
+        return steps.size() - 1;
+    }
+
+    private byte flags(int step, int resultStep, int lastStep) {
+        byte flags = 0;
+        Step current = steps.get(step);
+
+        if (current instanceof Read || current instanceof ReadFixed) {
+            flags |= SqeOptions.IOSQE_FIXED_FILE.value;
+        }
+        if (step < lastStep) {
+            boolean hard = hardLink || steps.get(step + 1) instanceof CloseDirect;
+            flags |= hard ? SqeOptions.IOSQE_IO_HARDLINK.value : SqeOptions.IOSQE_IO_LINK.value;
+        }
+        if (skipIntermediateCompletions && step != resultStep && step != lastStep) {
+            flags |= SqeOptions.IOSQE_CQE_SKIP_SUCCESS.value;
+        }
+        return flags;
+    }
+
+    /**
+     * Copies the paths of every open into one zero terminated native buffer, in order.
+     */
+    private MemorySegment copyPaths() {
+        long size = 0;
+        for (Step step : steps) {
+            if (step instanceof OpenDirect o) {
+                size += o.path.length + 1;
+            }
+        }
+        if (size == 0) {
+            return MemorySegment.NULL;
+        }
+
+        MemorySegment paths = NativeDispatcher.C.calloc(size);
+        long offset = 0;
+        for (Step step : steps) {
+            if (step instanceof OpenDirect o) {
+                MemorySegment.copy(o.path, 0, paths, JAVA_BYTE, offset, o.path.length);
+                offset += o.path.length + 1;
+            }
+        }
+        return paths;
+    }
+
+    /*
+     The progress of a chain is kept in the long state of its request slot:
+     bits 0-31 the result, 32-39 the failed step + 1, 40-47 the step that gives the result, 48-55 the last step.
+     */
+    private static long state(int resultStep, int lastStep) {
+        return ((long) resultStep << RESULT_STEP_SHIFT) | ((long) lastStep << LAST_STEP_SHIFT);
+    }
+
+    /**
+     * Folds the completion of a step into the state of its chain.
+     */
+    static long complete(long state, int step, int result) {
+        if (failedStep(state) >= 0) {
+            return state;
+        }
+        if (result < 0) {
+            return (state & ~RESULT_MASK) | ((long) (step + 1) << FAILED_STEP_SHIFT) | (result & RESULT_MASK);
+        }
+        if (step == ((state >>> RESULT_STEP_SHIFT) & STEP_MASK)) {
+            return (state & ~RESULT_MASK) | (result & RESULT_MASK);
+        }
+        return state;
+    }
+
+    static boolean isLastStep(long state, int step) {
+        return step == ((state >>> LAST_STEP_SHIFT) & STEP_MASK);
+    }
+
+    static int failedStep(long state) {
+        return (int) ((state >>> FAILED_STEP_SHIFT) & STEP_MASK) - 1;
+    }
+
+    static int result(long state) {
+        return (int) state;
+    }
+
+    private sealed interface Step permits OpenDirect, Read, ReadFixed, CloseDirect {
+    }
+
+    private record OpenDirect(byte[] path, int flags, int mode, int fileIndex) implements Step {
+    }
+
+    private record Read(int fileIndex, MemorySegment buffer, long offset) implements Step {
+    }
+
+    private record ReadFixed(int fileIndex, MemorySegment buffer, int readSize, long offset, int bufferIndex) implements Step {
+    }
+
+    private record CloseDirect(int fileIndex) implements Step {
+    }
+}
@@ -0,0 +1,15 @@
+package com.davidvlijmincx.lio.api;
+
+/**
+ * Completion of a {@link Chain}.
+ *
+ * @param failedStep index of the first operation in the chain that failed, or -1 when every operation succeeded
+ * @param result     the result of the failed operation, or when every operation succeeded the result of the last
+ *                   read in the chain, or of the last operation when the chain has no read
+ */
+public record ChainResult(long id, int failedStep, int result) implements Result {
+
+    public boolean succeeded() {
+        return failedStep < 0;
+    }
+}
@@ -0,0 +1,111 @@
+package com.davidvlijmincx.lio.api;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Reusable container that {@link JUring#reapCompletions(CompletionBatch)} fills with completions, stored in
+ * parallel arrays so iterating a batch does not create any objects.
+ * <p>
+ * The buffers of reads are owned by the caller once they are in the batch and are handed back with
+ * {@link #freeBuffer(int)}, the buffers of other operations are freed by JUring or owned by the caller already.
+ */
+public final class CompletionBatch {
+
+    private final long[] ids;
+    private final int[] results;
+    private final int[] flags;
+    private final OperationType[] types;
+    private final MemorySegment[] buffers;
+    private final BufferOwner[] owners;
+    private int size;
+
+    public CompletionBatch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        ids = new long[capacity];
+        results = new int[capacity];
+        flags = new int[capacity];
+        types = new OperationType[capacity];
+        buffers = new MemorySegment[capacity];
+        owners = new BufferOwner[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return ids.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long id(int index) {
+        return ids[checkIndex(index)];
+    }
+
+    public int result(int index) {
+        return results[checkIndex(index)];
+    }
+
+    public int flags(int index) {
+        return flags[checkIndex(index)];
+    }
+
+    public OperationType type(int index) {
+        return types[checkIndex(index)];
+    }
+
+    /**
+     * Buffer of a read, {@link MemorySegment#NULL} for operations without one.
+     */
+    public MemorySegment buffer(int index) {
+        return buffers[checkIndex(index)];
+    }
+
+    /**
+     * Hands the buffer of a read back to its owner: JUring allocated buffers are freed and buffers selected from a
+     * {@link BufferRing} are recycled, buffers owned by the caller or registered with the ring are left alone.
+     */
+    public void freeBuffer(int index) {
+        BufferOwner owner = owners[checkIndex(index)];
+        if (owner != null) {
+            owner.release(buffers[index], flags[index]);
+            owners[index] = null;
+            buffers[index] = MemorySegment.NULL;
+        }
+    }
+
+    /**
+     * Empties the batch so it can be filled again, buffers that were not freed stay allocated.
+     */
+    public void clear() {
+        Arrays.fill(buffers, 0, size, null);
+        Arrays.fill(types, 0, size, null);
+        Arrays.fill(owners, 0, size, null);
+        size = 0;
+    }
+
+    int remaining() {
+        return ids.length - size;
+    }
+
+    void add(long id, int result, int flags, OperationType type, MemorySegment buffer, BufferOwner owner) {
+        int index = size++;
+        this.ids[index] = id;
+        this.results[index] = result;
+        this.flags[index] = flags;
+        this.types[index] = type;
+        this.buffers[index] = buffer;
+        this.owners[index] = owner;
+    }
+
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, size);
+    }
+}
@@ -0,0 +1,16 @@
+package com.davidvlijmincx.lio.api;
+
+/**
+ * Called by {@link JUring#reapCompletions(CompletionHandler, int)} for every completion, straight from the
+ * completion queue and without creating a result object.
+ */
+@FunctionalInterface
+public interface CompletionHandler {
+
+    /**
+     * @param id     the id returned when the operation was prepared
+     * @param result the result of the operation, a negative errno on failure
+     * @param flags  the flags of the completion queue entry
+     */
+    void onCompletion(long id, int result, int flags);
+}
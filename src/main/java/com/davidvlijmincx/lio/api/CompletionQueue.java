@@ -0,0 +1,112 @@
+package com.davidvlijmincx.lio.api;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.VarHandle;
+
+import static java.lang.foreign.MemoryLayout.PathElement.groupElement;
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+
+/**
+ * Java view of the {@code io_uring_cq} part of a ring. Completions are read in place from the mmap'd cqes
+ * array between khead and ktail, and the new head is published once per batch.
+ * {@snippet lang = c:
+ * struct io_uring_cqe {
+ *     __u64 user_data;   // 0
+ *     __s32 res;         // 8
+ *     __u32 flags;       // 12
+ * }
+ *}
+ */
+final class CompletionQueue {
+
+    static final long USER_DATA = 0;
+    static final long RES = 8;
+    static final long FLAGS = 12;
+
+    private static final int IORING_SQ_CQ_OVERFLOW = 1 << 1;
+    private static final int IORING_SQ_TASKRUN = 1 << 2;
+    private static final int CQE_SHIFT = 4;
+
+    private static final long KHEAD = cqOffset("khead");
+    private static final long KTAIL = cqOffset("ktail");
+    private static final long CQES = cqOffset("cqes");
+    private static final long RING_MASK = cqOffset("ring_mask");
+    private static final long RING_ENTRIES = cqOffset("ring_entries");
+    private static final long SQ_KFLAGS = LibUringDispatcher.ring_layout.byteOffset(groupElement("sq"), groupElement("kflags"));
+    private static final long RING_FLAGS = LibUringDispatcher.ring_layout.byteOffset(groupElement("flags"));
+
+    private static final VarHandle INT_HANDLE = JAVA_INT.varHandle();
+
+    private final MemorySegment ring;
+    private MemorySegment khead;
+    private MemorySegment ktail;
+    private MemorySegment kflags;
+    private MemorySegment cqes;
+    private int ringMask;
+    private int cqeShift;
+    private boolean alwaysEnter;
+
+    CompletionQueue(MemorySegment ring) {
+        this.ring = ring;
+    }
+
+    /**
+     * Reads the ring pointers, must be called once the ring is initialized.
+     */
+    void map() {
+        int ringFlags = ring.get(JAVA_INT, RING_FLAGS);
+        int ringEntries = ring.get(JAVA_INT, RING_ENTRIES);
+
+        ringMask = ring.get(JAVA_INT, RING_MASK);
+        cqeShift = (ringFlags & IoUringOptions.IORING_SETUP_CQE32.value) != 0 ? CQE_SHIFT + 1 : CQE_SHIFT;
+        // without the taskrun flag the kernel does not tell when deferred task work is waiting
+        alwaysEnter = (ringFlags & IoUringOptions.IORING_SETUP_IOPOLL.value) != 0
+                || ((ringFlags & IoUringOptions.IORING_SETUP_DEFER_TASKRUN.value) != 0 && (ringFlags & IoUringOptions.IORING_SETUP_TASKRUN_FLAG.value) == 0);
+        khead = ring.get(ADDRESS, KHEAD).reinterpret(JAVA_INT.byteSize());
+        ktail = ring.get(ADDRESS, KTAIL).reinterpret(JAVA_INT.byteSize());
+        kflags = ring.get(ADDRESS, SQ_KFLAGS).reinterpret(JAVA_INT.byteSize());
+        cqes = ring.get(ADDRESS, CQES).reinterpret((long) ringEntries << cqeShift);
+    }
+
+    /**
+     * The head is only written by us, so a plain read is enough.
+     */
+    int head() {
+        return khead.get(JAVA_INT, 0L);
+    }
+
+    int tail() {
+        return (int) INT_HANDLE.getAcquire(ktail, 0L);
+    }
+
+    /**
+     * Marks every completion before {@code head} as seen.
+     */
+    void advance(int head) {
+        INT_HANDLE.setRelease(khead, 0L, head);
+    }
+
+    /**
+     * Byte offset in {@link #cqes()} of the completion at ring position {@code index}.
+     */
+    long cqe(int index) {
+        return (long) (index & ringMask) << cqeShift;
+    }
+
+    MemorySegment cqes() {
+        return cqes;
+    }
+
+    /**
+     * Whether completions can be pending that are only posted once the kernel is entered, because the
+     * completion queue overflowed, deferred task work is waiting or the ring is polled.
+     */
+    boolean needsFlush() {
+        return alwaysEnter || ((int) INT_HANDLE.getAcquire(kflags, 0L) & (IORING_SQ_CQ_OVERFLOW | IORING_SQ_TASKRUN)) != 0;
+    }
+
+    private static long cqOffset(String field) {
+        return LibUringDispatcher.ring_layout.byteOffset(groupElement("cq"), groupElement(field));
+    }
+}
@@ -0,0 +1,25 @@
+package com.davidvlijmincx.lio.api;
+
+/**
+ * Modes of {@code fallocate}, see {@link JUring#prepareFallocate(FileDescriptor, int, long, long, SqeOptions...)}.
+ * {@link #FALLOC_FL_PUNCH_HOLE} has to be combined with {@link #FALLOC_FL_KEEP_SIZE}.
+ */
+public enum FallocateMode {
+
+    FALLOC_FL_KEEP_SIZE(1),        // 0x01
+    FALLOC_FL_PUNCH_HOLE(1 << 1);  // 0x02
+
+    final int value;
+
+    FallocateMode(int value) {
+        this.value = value;
+    }
+
+    public static int of(FallocateMode... modes) {
+        int combinedModes = 0;
+        for (FallocateMode b : modes) {
+            combinedModes |= b.value;
+        }
+        return combinedModes;
+    }
+}
@@ -0,0 +1,47 @@
+package com.davidvlijmincx.lio.api;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Copies a range of a file through registered buffers, every buffer has a read-fixed in flight that is linked to
+ * the write-fixed of the same buffer, see {@link LinkedPairCopy}.
+ */
+final class FixedBufferCopy extends LinkedPairCopy<FixedBufferCopy.Buffer> {
+
+    FixedBufferCopy(JUring jUring, int firstBufferIndex, int buffers) {
+        super(jUring, buffers);
+        if (buffers <= 0) {
+            throw new IllegalArgumentException("At least one buffer is needed to copy");
+        }
+
+        for (int i = firstBufferIndex; i < firstBufferIndex + buffers; i++) {
+            idleChunks.add(new Buffer(i, jUring.registeredBuffer(i)));
+        }
+    }
+
+    @Override
+    long prepareMove(int source, Buffer buffer) {
+        long id = ioUring.newRequest(OperationType.READ_FIXED, buffer.segment);
+        ioUring.prepareReadFixed(source, buffer.segment, buffer.length, buffer.start, buffer.index, SqeOptions.IOSQE_IO_LINK.value, id);
+        return id;
+    }
+
+    @Override
+    long prepareWrite(int target, Buffer buffer, int from, int length) {
+        MemorySegment rest = buffer.segment.asSlice(from, length);
+        long id = ioUring.newRequest(OperationType.WRITE_FIXED, buffer.segment);
+        ioUring.prepareWriteFixed(target, rest, length, buffer.start + from, buffer.index, (byte) 0, id);
+        return id;
+    }
+
+    static final class Buffer extends LinkedPairCopy.Chunk {
+        private final int index;
+        private final MemorySegment segment;
+
+        private Buffer(int index, MemorySegment segment) {
+            super((int) segment.byteSize());
+            this.index = index;
+            this.segment = segment;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.davidvlijmincx.lio.api;
+
+import java.lang.foreign.MemorySegment;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Pool of buffers registered with a ring, leased out for fixed reads. Leasing and releasing go through a lock-free
+ * free list, so threads can lease concurrently. A lease passed to
+ * {@link JUring#prepareReadFixed(FileDescriptor, Lease, int, long, SqeOptions...)} is returned to the pool when the
+ * {@link PooledReadResult} is closed.
+ * <p>
+ * The state of a buffer packs a generation above the leased bit. Every lease carries the state it was handed out
+ * with and a release bumps the generation, so closing a lease a second time, after the buffer was leased again,
+ * fails instead of freeing the buffer of the current holder. Leasing does not allocate, every buffer has two lease
+ * objects that take turns, so a stale close is caught until the buffer was leased twice more.
+ */
+public final class FixedBufferPool {
+
+    private static final int LEASED = 1;
+    private static final int LEASES_PER_BUFFER = 2;
+
+    private final MemorySegment[] buffers;
+    private final AtomicIntegerArray states;
+    private final FreeList freeBuffers;
+    private final Lease[] leases;
+
+    FixedBufferPool(MemorySegment[] buffers) {
+        this.buffers = buffers;
+        this.states = new AtomicIntegerArray(buffers.length);
+        this.freeBuffers = new FreeList(buffers.length);
+        this.leases = new Lease[buffers.length * LEASES_PER_BUFFER];
+        for (int i = 0; i < leases.length; i++) {
+            leases[i] = new Lease(i / LEASES_PER_BUFFER);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException when every buffer is leased
+     */
+    public Lease lease() {
+        Lease lease = tryLease();
+        if (lease == null) {
+            throw new IllegalStateException("No free buffers, all " + buffers.length + " buffers are leased");
+        }
+        return lease;
+    }
+
+    /**
+     * @return a lease, or null when every buffer is leased
+     */
+    public Lease tryLease() {
+        int index = freeBuffers.pop();
+        if (index == FreeList.EMPTY) {
+            return null;
+        }
+        // the index is owned by this thread until it is pushed back, so nobody else changes its state
+        int state = states.get(index) | LEASED;
+        states.set(index, state);
+        // the generation picks the lease object, the other one may still be held by the previous holder
+        Lease lease = leases[index * LEASES_PER_BUFFER + (state >>> 1) % LEASES_PER_BUFFER];
+        lease.state = state;
+        return lease;
+    }
+
+    public int size() {
+        return buffers.length;
+    }
+
+    private void release(int index, int state) {
+        // the next state clears the leased bit and moves to the next generation
+        if (!states.compareAndSet(index, state, state + 1)) {
+            throw new IllegalStateException("Lease of buffer " + index + " is already closed");
+        }
+        freeBuffers.push(index);
+    }
+
+    /**
+     * A registered buffer owned by the caller until it is closed. A lease must not be used after it is closed.
+     */
+    public final class Lease implements BufferOwner, AutoCloseable {
+
+        private final int index;
+        private volatile int state;
+
+        private Lease(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Index of the buffer in the buffers registered with the ring.
+         */
+        public int bufferIndex() {
+            return index;
+        }
+
+        public MemorySegment buffer() {
+            return buffers[index];
+        }
+
+        @Override
+        public void release(MemorySegment buffer, int flags) {
+            close();
+        }
+
+        @Override
+        public void close() {
+            FixedBufferPool.this.release(index, state);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.davidvlijmincx.lio.api;
+
+/**
+ * Counts why a ring submitted, see {@link BatchPolicy}.
+ *
+ * @param explicit submits the caller asked for
+ * @param full     submits to make room in a full submission queue
+ * @param size     submits because a batch reached its size
+ * @param age      submits because a batch reached its age
+ * @param waited   submits of waiting requests before blocking for results
+ */
+public record FlushStats(long explicit, long full, long size, long age, long waited) {
+}
@@ -0,0 +1,57 @@
+package com.davidvlijmincx.lio.api;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free stack of free indices in {@code [0, capacity)}. The head packs a stamp in the upper 32 bits
+ * next to the top index, so a pop that races with a pop/push of the same index fails its CAS instead of
+ * corrupting the list.
+ */
+final class FreeList {
+
+    static final int EMPTY = -1;
+
+    private final int[] next;
+    private final AtomicLong head;
+
+    FreeList(int capacity) {
+        next = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            next[i] = i + 1 < capacity ? i + 1 : EMPTY;
+        }
+        head = new AtomicLong(pack(0, capacity > 0 ? 0 : EMPTY));
+    }
+
+    int pop() {
+        long current;
+        int top;
+        do {
+            current = head.get();
+            top = (int) current;
+            if (top == EMPTY) {
+                return EMPTY;
+            }
+        } while (!head.compareAndSet(current, pack(stamp(current) + 1, next[top])));
+        return top;
+    }
+
+    void push(int index) {
+        long current;
+        do {
+            current = head.get();
+            next[index] = (int) current;
+        } while (!head.compareAndSet(current, pack(stamp(current) + 1, index)));
+    }
+
+    int capacity() {
+        return next.length;
+    }
+
+    private static int stamp(long head) {
+        return (int) (head >>> 32);
+    }
+
+    private static long pack(int stamp, int index) {
+        return ((long) stamp << 32) | (index & 0xFFFF_FFFFL);
+    }
+}
@@ -1,20 +1,44 @@
 package com.davidvlijmincx.lio.api;
 
+import java.io.IOException;
 import java.lang.foreign.*;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
 
+import static com.davidvlijmincx.lio.api.DirectoryFileDescriptorFlags.AT_FDCWD;
 import static java.lang.foreign.ValueLayout.JAVA_BYTE;
 
 public class JUring implements AutoCloseable {
 
+    private static final int IORING_FSYNC_DATASYNC = 1;
+    private static final int AT_EMPTY_PATH = 0x1000;
+    private static final int IORING_ASYNC_CANCEL_ALL = 1;
+    private static final int IORING_ASYNC_CANCEL_FD = 1 << 1;
+    private static final int IORING_ASYNC_CANCEL_ANY = 1 << 2;
+    private static final int IORING_ASYNC_CANCEL_FD_FIXED = 1 << 3;
+    private static final int DEFAULT_COPY_CHUNK_SIZE = 1 << 20;
+    private static final int DEFAULT_COPY_CHUNKS_IN_FLIGHT = 4;
+
     private final LibUringDispatcher ioUring;
     private final List<MemorySegment> registeredBuffers;
 
     public JUring(int queueDepth, IoUringOptions... ioUringFlags) {
-        ioUring = NativeDispatcher.getUringInstance(queueDepth, ioUringFlags);
+        this(queueDepth, SubmissionEngine.LIBURING, ioUringFlags);
+    }
+
+    public JUring(int queueDepth, SubmissionEngine engine, IoUringOptions... ioUringFlags) {
+        ioUring = NativeDispatcher.getUringInstance(queueDepth, engine, ioUringFlags);
+        registeredBuffers = new ArrayList<>();
+    }
+
+    public JUring(RingConfig config) {
+        this(config, SubmissionEngine.LIBURING);
+    }
+
+    public JUring(RingConfig config, SubmissionEngine engine) {
+        ioUring = NativeDispatcher.getUringInstance(config, engine);
         registeredBuffers = new ArrayList<>();
     }
 
@@ -28,134 +52,688 @@ public class JUring implements AutoCloseable {
         return new JUring(ring);
     }
 
+    /**
+     * The {@code IORING_FEAT_*} bits the kernel reported for this ring.
+     */
+    public int features() {
+        return ioUring.features();
+    }
+
+    public boolean supports(RingFeature feature) {
+        return (ioUring.features() & feature.value) != 0;
+    }
+
+    /**
+     * Whether the ring is entered through a registered ring fd, see {@link RingConfig.Builder#registerRingFd()}.
+     */
+    public boolean ringFdRegistered() {
+        return ioUring.ringFdRegistered();
+    }
+
+    /**
+     * Why the ring submitted so far, see {@link BatchPolicy}.
+     */
+    public FlushStats flushStats() {
+        return ioUring.flushStats();
+    }
+
+    /**
+     * How often {@link #submit()} was called and how many of those calls entered the kernel.
+     */
+    public SubmitStats submitStats() {
+        return ioUring.submitStats();
+    }
+
     public long prepareRead(FileDescriptor fd, int readSize, long offset, SqeOptions... sqeOptions) {
-        return prepareReadInternal(fd.getFd(), readSize, offset, sqeOptions);
+        return prepareRead(fd, readSize, offset, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareRead(FileDescriptor fd, int readSize, long offset, SqeFlags sqeFlags) {
+        return prepareReadInternal(fd.getFd(), readSize, offset, sqeFlags);
     }
 
     public long prepareRead(int indexFD, int readSize, long offset, SqeOptions... sqeOptions) {
-        return prepareReadInternal(indexFD, readSize, offset, addFixedFileFlag(sqeOptions));
+        return prepareRead(indexFD, readSize, offset, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareRead(int indexFD, int readSize, long offset, SqeFlags sqeFlags) {
+        return prepareReadInternal(indexFD, readSize, offset, addFixedFileFlag(sqeFlags));
+    }
+
+    /**
+     * Reads into a buffer owned by the caller, JUring never frees it.
+     */
+    public long prepareRead(FileDescriptor fd, MemorySegment buffer, long offset, SqeOptions... sqeOptions) {
+        return prepareRead(fd, buffer, offset, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareRead(FileDescriptor fd, MemorySegment buffer, long offset, SqeFlags sqeFlags) {
+        return prepareReadInternal(fd.getFd(), buffer, offset, sqeFlags);
+    }
+
+    public long prepareRead(int indexFD, MemorySegment buffer, long offset, SqeOptions... sqeOptions) {
+        return prepareRead(indexFD, buffer, offset, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareRead(int indexFD, MemorySegment buffer, long offset, SqeFlags sqeFlags) {
+        return prepareReadInternal(indexFD, buffer, offset, addFixedFileFlag(sqeFlags));
+    }
+
+    /**
+     * Reads into a buffer the kernel picks from the buffer ring when the data is ready, the picked buffer is
+     * available through {@link PooledReadResult#bufferId()}.
+     */
+    public long prepareRead(FileDescriptor fd, BufferRing bufferRing, int readSize, long offset, SqeOptions... sqeOptions) {
+        return prepareRead(fd, bufferRing, readSize, offset, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareRead(FileDescriptor fd, BufferRing bufferRing, int readSize, long offset, SqeFlags sqeFlags) {
+        return prepareReadInternal(fd.getFd(), bufferRing, readSize, offset, sqeFlags);
+    }
+
+    public long prepareRead(int indexFD, BufferRing bufferRing, int readSize, long offset, SqeOptions... sqeOptions) {
+        return prepareRead(indexFD, bufferRing, readSize, offset, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareRead(int indexFD, BufferRing bufferRing, int readSize, long offset, SqeFlags sqeFlags) {
+        return prepareReadInternal(indexFD, bufferRing, readSize, offset, addFixedFileFlag(sqeFlags));
     }
 
     public long prepareReadFixed(FileDescriptor fd, int readSize, long offset, int bufferIndex, SqeOptions... sqeOptions) {
-        return prepareReadFixedInternal(fd.getFd(), readSize, offset, bufferIndex, sqeOptions);
+        return prepareReadFixed(fd, readSize, offset, bufferIndex, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareReadFixed(FileDescriptor fd, int readSize, long offset, int bufferIndex, SqeFlags sqeFlags) {
+        return prepareReadFixedInternal(fd.getFd(), readSize, offset, bufferIndex, sqeFlags);
     }
 
     public long prepareReadFixed(int indexFD, int readSize, long offset, int bufferIndex, SqeOptions... sqeOptions) {
-        return prepareReadFixedInternal(indexFD, readSize, offset, bufferIndex, addFixedFileFlag(sqeOptions));
+        return prepareReadFixed(indexFD, readSize, offset, bufferIndex, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareReadFixed(int indexFD, int readSize, long offset, int bufferIndex, SqeFlags sqeFlags) {
+        return prepareReadFixedInternal(indexFD, readSize, offset, bufferIndex, addFixedFileFlag(sqeFlags));
+    }
+
+    /**
+     * Reads into a leased buffer, the lease goes back to its pool when the {@link PooledReadResult} is closed.
+     */
+    public long prepareReadFixed(FileDescriptor fd, FixedBufferPool.Lease lease, int readSize, long offset, SqeOptions... sqeOptions) {
+        return prepareReadFixed(fd, lease, readSize, offset, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareReadFixed(FileDescriptor fd, FixedBufferPool.Lease lease, int readSize, long offset, SqeFlags sqeFlags) {
+        return prepareReadFixedInternal(fd.getFd(), lease, readSize, offset, sqeFlags);
+    }
+
+    public long prepareReadFixed(int indexFD, FixedBufferPool.Lease lease, int readSize, long offset, SqeOptions... sqeOptions) {
+        return prepareReadFixed(indexFD, lease, readSize, offset, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareReadFixed(int indexFD, FixedBufferPool.Lease lease, int readSize, long offset, SqeFlags sqeFlags) {
+        return prepareReadFixedInternal(indexFD, lease, readSize, offset, addFixedFileFlag(sqeFlags));
     }
 
     public long prepareWrite(FileDescriptor fd, byte[] bytes, long offset, SqeOptions... sqeOptions) {
-        return prepareWriteInternal(fd.getFd(), bytes, offset, sqeOptions);
+        return prepareWrite(fd, bytes, offset, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWrite(FileDescriptor fd, byte[] bytes, long offset, SqeFlags sqeFlags) {
+        return prepareWriteInternal(fd.getFd(), bytes, offset, sqeFlags);
     }
 
     public long prepareWrite(FileDescriptor fd, MemorySegment bytes, long offset, SqeOptions... sqeOptions) {
-        return prepareWriteInternal(fd.getFd(), bytes, offset, sqeOptions);
+        return prepareWrite(fd, bytes, offset, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWrite(FileDescriptor fd, MemorySegment bytes, long offset, SqeFlags sqeFlags) {
+        return prepareWriteInternal(fd.getFd(), bytes, offset, sqeFlags);
     }
 
     public long prepareWrite(int indexFD, byte[] bytes, long offset, SqeOptions... sqeOptions) {
-        return prepareWriteInternal(indexFD, bytes, offset, addFixedFileFlag(sqeOptions));
+        return prepareWrite(indexFD, bytes, offset, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWrite(int indexFD, byte[] bytes, long offset, SqeFlags sqeFlags) {
+        return prepareWriteInternal(indexFD, bytes, offset, addFixedFileFlag(sqeFlags));
     }
 
     public long prepareWrite(int indexFD, MemorySegment bytes, long offset, SqeOptions... sqeOptions) {
-        return prepareWriteInternal(indexFD, bytes, offset, addFixedFileFlag(sqeOptions));
+        return prepareWrite(indexFD, bytes, offset, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWrite(int indexFD, MemorySegment bytes, long offset, SqeFlags sqeFlags) {
+        return prepareWriteInternal(indexFD, bytes, offset, addFixedFileFlag(sqeFlags));
     }
 
     public long prepareWriteFixed(FileDescriptor fd, byte[] bytes, long offset, int bufferIndex, SqeOptions... sqeOptions) {
-        return prepareWriteFixedInternal(fd.getFd(), bytes, offset, bufferIndex, sqeOptions);
+        return prepareWriteFixed(fd, bytes, offset, bufferIndex, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWriteFixed(FileDescriptor fd, byte[] bytes, long offset, int bufferIndex, SqeFlags sqeFlags) {
+        return prepareWriteFixedInternal(fd.getFd(), bytes, offset, bufferIndex, sqeFlags);
     }
 
     public long prepareWriteFixed(int indexFD, byte[] bytes, long offset, int bufferIndex, SqeOptions... sqeOptions) {
-        return prepareWriteFixedInternal(indexFD, bytes, offset, bufferIndex, addFixedFileFlag(sqeOptions));
+        return prepareWriteFixed(indexFD, bytes, offset, bufferIndex, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWriteFixed(int indexFD, byte[] bytes, long offset, int bufferIndex, SqeFlags sqeFlags) {
+        return prepareWriteFixedInternal(indexFD, bytes, offset, bufferIndex, addFixedFileFlag(sqeFlags));
+    }
+
+    /**
+     * Scatters one read over the buffers, in order. The {@link ReadResult} of a vectored read has no buffer of its
+     * own, the data is in the buffers passed here. {@code rwFlags} are {@link RwFlags} as passed to preadv2.
+     */
+    public long prepareReadv(FileDescriptor fd, MemorySegment[] buffers, long offset, SqeOptions... sqeOptions) {
+        return prepareReadv(fd, buffers, offset, 0, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareReadv(FileDescriptor fd, MemorySegment[] buffers, long offset, int rwFlags, SqeOptions... sqeOptions) {
+        return prepareReadv(fd, buffers, offset, rwFlags, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareReadv(FileDescriptor fd, MemorySegment[] buffers, long offset, int rwFlags, SqeFlags sqeFlags) {
+        return prepareVectoredInternal(OperationType.READV, Opcode.READV, fd.getFd(), buffers, offset, rwFlags, 0, sqeFlags);
+    }
+
+    public long prepareReadv(int indexFD, MemorySegment[] buffers, long offset, SqeOptions... sqeOptions) {
+        return prepareReadv(indexFD, buffers, offset, 0, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareReadv(int indexFD, MemorySegment[] buffers, long offset, int rwFlags, SqeOptions... sqeOptions) {
+        return prepareReadv(indexFD, buffers, offset, rwFlags, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareReadv(int indexFD, MemorySegment[] buffers, long offset, int rwFlags, SqeFlags sqeFlags) {
+        return prepareVectoredInternal(OperationType.READV, Opcode.READV, indexFD, buffers, offset, rwFlags, 0, addFixedFileFlag(sqeFlags));
+    }
+
+    public long prepareReadvFixed(FileDescriptor fd, MemorySegment[] buffers, long offset, int bufferIndex, SqeOptions... sqeOptions) {
+        return prepareReadvFixed(fd, buffers, offset, bufferIndex, 0, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareReadvFixed(FileDescriptor fd, MemorySegment[] buffers, long offset, int bufferIndex, int rwFlags, SqeOptions... sqeOptions) {
+        return prepareReadvFixed(fd, buffers, offset, bufferIndex, rwFlags, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareReadvFixed(FileDescriptor fd, MemorySegment[] buffers, long offset, int bufferIndex, int rwFlags, SqeFlags sqeFlags) {
+        checkInRegisteredBuffer(buffers, bufferIndex);
+        return prepareVectoredInternal(OperationType.READV, Opcode.READV_FIXED, fd.getFd(), buffers, offset, rwFlags, bufferIndex, sqeFlags);
+    }
+
+    public long prepareReadvFixed(int indexFD, MemorySegment[] buffers, long offset, int bufferIndex, SqeOptions... sqeOptions) {
+        return prepareReadvFixed(indexFD, buffers, offset, bufferIndex, 0, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareReadvFixed(int indexFD, MemorySegment[] buffers, long offset, int bufferIndex, int rwFlags, SqeOptions... sqeOptions) {
+        return prepareReadvFixed(indexFD, buffers, offset, bufferIndex, rwFlags, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareReadvFixed(int indexFD, MemorySegment[] buffers, long offset, int bufferIndex, int rwFlags, SqeFlags sqeFlags) {
+        checkInRegisteredBuffer(buffers, bufferIndex);
+        return prepareVectoredInternal(OperationType.READV, Opcode.READV_FIXED, indexFD, buffers, offset, rwFlags, bufferIndex, addFixedFileFlag(sqeFlags));
+    }
+
+    /**
+     * Gathers the buffers, in order, into one write. {@code rwFlags} are {@link RwFlags} as passed to pwritev2.
+     */
+    public long prepareWritev(FileDescriptor fd, MemorySegment[] buffers, long offset, SqeOptions... sqeOptions) {
+        return prepareWritev(fd, buffers, offset, 0, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWritev(FileDescriptor fd, MemorySegment[] buffers, long offset, int rwFlags, SqeOptions... sqeOptions) {
+        return prepareWritev(fd, buffers, offset, rwFlags, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWritev(FileDescriptor fd, MemorySegment[] buffers, long offset, int rwFlags, SqeFlags sqeFlags) {
+        return prepareVectoredInternal(OperationType.WRITEV, Opcode.WRITEV, fd.getFd(), buffers, offset, rwFlags, 0, sqeFlags);
+    }
+
+    public long prepareWritev(int indexFD, MemorySegment[] buffers, long offset, SqeOptions... sqeOptions) {
+        return prepareWritev(indexFD, buffers, offset, 0, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWritev(int indexFD, MemorySegment[] buffers, long offset, int rwFlags, SqeOptions... sqeOptions) {
+        return prepareWritev(indexFD, buffers, offset, rwFlags, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWritev(int indexFD, MemorySegment[] buffers, long offset, int rwFlags, SqeFlags sqeFlags) {
+        return prepareVectoredInternal(OperationType.WRITEV, Opcode.WRITEV, indexFD, buffers, offset, rwFlags, 0, addFixedFileFlag(sqeFlags));
+    }
+
+    public long prepareWritevFixed(FileDescriptor fd, MemorySegment[] buffers, long offset, int bufferIndex, SqeOptions... sqeOptions) {
+        return prepareWritevFixed(fd, buffers, offset, bufferIndex, 0, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWritevFixed(FileDescriptor fd, MemorySegment[] buffers, long offset, int bufferIndex, int rwFlags, SqeOptions... sqeOptions) {
+        return prepareWritevFixed(fd, buffers, offset, bufferIndex, rwFlags, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWritevFixed(FileDescriptor fd, MemorySegment[] buffers, long offset, int bufferIndex, int rwFlags, SqeFlags sqeFlags) {
+        checkInRegisteredBuffer(buffers, bufferIndex);
+        return prepareVectoredInternal(OperationType.WRITEV, Opcode.WRITEV_FIXED, fd.getFd(), buffers, offset, rwFlags, bufferIndex, sqeFlags);
+    }
+
+    public long prepareWritevFixed(int indexFD, MemorySegment[] buffers, long offset, int bufferIndex, SqeOptions... sqeOptions) {
+        return prepareWritevFixed(indexFD, buffers, offset, bufferIndex, 0, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWritevFixed(int indexFD, MemorySegment[] buffers, long offset, int bufferIndex, int rwFlags, SqeOptions... sqeOptions) {
+        return prepareWritevFixed(indexFD, buffers, offset, bufferIndex, rwFlags, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWritevFixed(int indexFD, MemorySegment[] buffers, long offset, int bufferIndex, int rwFlags, SqeFlags sqeFlags) {
+        checkInRegisteredBuffer(buffers, bufferIndex);
+        return prepareVectoredInternal(OperationType.WRITEV, Opcode.WRITEV_FIXED, indexFD, buffers, offset, rwFlags, bufferIndex, addFixedFileFlag(sqeFlags));
+    }
+
+    /**
+     * Flushes the data and metadata of the file to storage, or only the data and the metadata needed to read it
+     * back when {@code dataSync} is set ({@code IORING_FSYNC_DATASYNC}). Link it after writes with
+     * {@link SqeOptions#IOSQE_IO_LINK} to flush them in the same submit.
+     */
+    public long prepareFsync(FileDescriptor fd, boolean dataSync, SqeOptions... sqeOptions) {
+        return prepareFsync(fd, dataSync, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareFsync(FileDescriptor fd, boolean dataSync, SqeFlags sqeFlags) {
+        return prepareFsyncInternal(fd.getFd(), dataSync, sqeFlags);
+    }
+
+    public long prepareFsync(int indexFD, boolean dataSync, SqeOptions... sqeOptions) {
+        return prepareFsync(indexFD, dataSync, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareFsync(int indexFD, boolean dataSync, SqeFlags sqeFlags) {
+        return prepareFsyncInternal(indexFD, dataSync, addFixedFileFlag(sqeFlags));
+    }
+
+    /**
+     * Starts and/or waits for writeback of a range of the file, {@code flags} are {@link SyncFileRangeFlags}.
+     */
+    public long prepareSyncFileRange(FileDescriptor fd, long offset, int length, int flags, SqeOptions... sqeOptions) {
+        return prepareSyncFileRange(fd, offset, length, flags, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareSyncFileRange(FileDescriptor fd, long offset, int length, int flags, SqeFlags sqeFlags) {
+        return prepareSyncFileRangeInternal(fd.getFd(), offset, length, flags, sqeFlags);
+    }
+
+    public long prepareSyncFileRange(int indexFD, long offset, int length, int flags, SqeOptions... sqeOptions) {
+        return prepareSyncFileRange(indexFD, offset, length, flags, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareSyncFileRange(int indexFD, long offset, int length, int flags, SqeFlags sqeFlags) {
+        return prepareSyncFileRangeInternal(indexFD, offset, length, flags, addFixedFileFlag(sqeFlags));
+    }
+
+    /**
+     * Allocates or deallocates the space of a range of the file, {@code mode} is 0 or a combination of
+     * {@link FallocateMode}. Preallocating the next part of a file keeps later appends from allocating extents.
+     */
+    public long prepareFallocate(FileDescriptor fd, int mode, long offset, long length, SqeOptions... sqeOptions) {
+        return prepareFallocate(fd, mode, offset, length, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareFallocate(FileDescriptor fd, int mode, long offset, long length, SqeFlags sqeFlags) {
+        return prepareFallocateInternal(fd.getFd(), mode, offset, length, sqeFlags);
+    }
+
+    public long prepareFallocate(int indexFD, int mode, long offset, long length, SqeOptions... sqeOptions) {
+        return prepareFallocate(indexFD, mode, offset, length, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareFallocate(int indexFD, int mode, long offset, long length, SqeFlags sqeFlags) {
+        return prepareFallocateInternal(indexFD, mode, offset, length, addFixedFileFlag(sqeFlags));
+    }
+
+    /**
+     * Truncates or extends the file to {@code length} bytes.
+     */
+    public long prepareFtruncate(FileDescriptor fd, long length, SqeOptions... sqeOptions) {
+        return prepareFtruncate(fd, length, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareFtruncate(FileDescriptor fd, long length, SqeFlags sqeFlags) {
+        return prepareFtruncateInternal(fd.getFd(), length, sqeFlags);
+    }
+
+    public long prepareFtruncate(int indexFD, long length, SqeOptions... sqeOptions) {
+        return prepareFtruncate(indexFD, length, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareFtruncate(int indexFD, long length, SqeFlags sqeFlags) {
+        return prepareFtruncateInternal(indexFD, length, addFixedFileFlag(sqeFlags));
+    }
+
+    /**
+     * Writes the first {@code length} bytes that are already in the registered buffer at {@code bufferIndex}.
+     */
+    public long prepareWriteFixed(FileDescriptor fd, int length, long offset, int bufferIndex, SqeOptions... sqeOptions) {
+        return prepareWriteFixed(fd, length, offset, bufferIndex, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWriteFixed(FileDescriptor fd, int length, long offset, int bufferIndex, SqeFlags sqeFlags) {
+        return prepareWriteFixedInternal(fd.getFd(), length, offset, bufferIndex, sqeFlags);
+    }
+
+    public long prepareWriteFixed(int indexFD, int length, long offset, int bufferIndex, SqeOptions... sqeOptions) {
+        return prepareWriteFixed(indexFD, length, offset, bufferIndex, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareWriteFixed(int indexFD, int length, long offset, int bufferIndex, SqeFlags sqeFlags) {
+        return prepareWriteFixedInternal(indexFD, length, offset, bufferIndex, addFixedFileFlag(sqeFlags));
     }
 
-    private SqeOptions[] addFixedFileFlag(SqeOptions[] sqeOptions) {
-        SqeOptions[] allFlags = new SqeOptions[sqeOptions.length + 1];
-        allFlags[sqeOptions.length] = SqeOptions.IOSQE_FIXED_FILE;
-        return allFlags;
+    private SqeFlags addFixedFileFlag(SqeFlags sqeFlags) {
+        return sqeFlags.with(SqeOptions.IOSQE_FIXED_FILE);
     }
 
     public long prepareOpen(String filePath, int flags, int mode, SqeOptions... sqeOptions) {
-        MemorySegment pathBuffer = NativeDispatcher.C.calloc(filePath.getBytes().length + 1);
-        MemorySegment.copy(filePath.getBytes(), 0, pathBuffer, JAVA_BYTE, 0, filePath.getBytes().length);
+        return prepareOpen(filePath, flags, mode, SqeFlags.of(sqeOptions));
+    }
 
-        long id = pathBuffer.address() + ThreadLocalRandom.current().nextLong();
-        MemorySegment userData = UserData.createUserData(id, -1, OperationType.OPEN, pathBuffer);
+    public long prepareOpen(String filePath, int flags, int mode, SqeFlags sqeFlags) {
+        MemorySegment pathBuffer = allocatePath(filePath);
 
-        MemorySegment sqe = getSqe(sqeOptions);
+        long id = ioUring.newRequest(OperationType.OPEN, pathBuffer);
 
-        ioUring.prepareOpenAt(sqe, pathBuffer, flags, mode);
-        ioUring.setUserData(sqe, userData.address());
+        ioUring.prepareOpenAt(pathBuffer, flags, mode, sqeFlags.value(), id);
 
         return id;
     }
 
     public long prepareOpenDirect(String filePath, int flags, int mode, int fileIndex, SqeOptions... sqeOptions) {
-        MemorySegment pathBuffer = NativeDispatcher.C.alloc(filePath.getBytes().length + 1);
-        MemorySegment.copy(filePath.getBytes(), 0, pathBuffer, JAVA_BYTE, 0, filePath.getBytes().length);
-        pathBuffer.set(JAVA_BYTE, filePath.getBytes().length, (byte) 0);
+        return prepareOpenDirect(filePath, flags, mode, fileIndex, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareOpenDirect(String filePath, int flags, int mode, int fileIndex, SqeFlags sqeFlags) {
+        MemorySegment pathBuffer = allocatePath(filePath);
+
+        long id = ioUring.newRequest(OperationType.OPEN, pathBuffer);
+
+        ioUring.prepareOpenDirectAt(pathBuffer, flags, mode, fileIndex, sqeFlags.value(), id);
+
+        return id;
+    }
+
+    /**
+     * Gets the size, block size, modification time and inode of the file at {@code filePath}.
+     */
+    public long prepareStatx(String filePath, SqeOptions... sqeOptions) {
+        return prepareStatx(filePath, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareStatx(String filePath, SqeFlags sqeFlags) {
+        MemorySegment statx = allocateStatx(filePath);
+
+        long id = ioUring.newRequest(OperationType.STATX, statx);
+
+        ioUring.prepareStatx(AT_FDCWD.value, statx.asSlice(StatxResult.SIZE), 0, statx, sqeFlags.value(), id);
+
+        return id;
+    }
+
+    public long prepareStatx(FileDescriptor fd, SqeOptions... sqeOptions) {
+        return prepareStatx(fd, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareStatx(FileDescriptor fd, SqeFlags sqeFlags) {
+        MemorySegment statx = allocateStatx("");
 
-        long id = pathBuffer.address() + ThreadLocalRandom.current().nextLong();
-        MemorySegment userData = UserData.createUserData(id, fileIndex, OperationType.OPEN, pathBuffer);
+        long id = ioUring.newRequest(OperationType.STATX, statx);
 
-        MemorySegment sqe = getSqe(sqeOptions);
-        ioUring.prepareOpenDirectAt(sqe, pathBuffer, flags, mode, fileIndex);
-        ioUring.setUserData(sqe, userData.address());
+        ioUring.prepareStatx(fd.getFd(), statx.asSlice(StatxResult.SIZE), AT_EMPTY_PATH, statx, sqeFlags.value(), id);
+
+        return id;
+    }
+
+    /**
+     * Reads the whole file at {@code filePath} into one buffer sized to the file, without knowing its size up front.
+     * A statx linked to an open into the registered file table at {@code fileIndex} goes out with the next submit,
+     * and once they completed the read linked to a close of the descriptor goes out with the next submit, or before
+     * waiting for results. The caller sees a single {@link ReadResult}, the buffer is freed with
+     * {@link ReadResult#freeBuffer()}.
+     * <p>
+     * The file is read with a single read, which the kernel caps just below 2 GiB. A file larger than
+     * {@code 0x7FFF0000} bytes completes with {@code -EFBIG} instead of a short read.
+     * <p>
+     * {@code fileIndex} must be a free slot of a registered file table, see {@link #registerFilesSparse(int)}.
+     */
+    public long prepareReadAll(String filePath, int fileIndex) {
+        MemorySegment statx = allocateStatx(filePath);
+
+        long id = ioUring.newRequest(OperationType.READ_ALL, statx, BufferOwner.MALLOC);
+
+        ioUring.prepareReadAll(statx, fileIndex, id);
+
+        return id;
+    }
+
+    /**
+     * Moves up to {@code length} bytes from {@code in} to {@code out} without copying them to user space, one of the
+     * two has to be a pipe. An offset of -1 uses the file position, which is the only option for a pipe.
+     */
+    public long prepareSplice(FileDescriptor in, long inOffset, FileDescriptor out, long outOffset, int length, int spliceFlags, SqeOptions... sqeOptions) {
+        return prepareSplice(in, inOffset, out, outOffset, length, spliceFlags, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareSplice(FileDescriptor in, long inOffset, FileDescriptor out, long outOffset, int length, int spliceFlags, SqeFlags sqeFlags) {
+        long id = ioUring.newRequest(OperationType.SPLICE, MemorySegment.NULL);
+
+        ioUring.prepareSplice(in.getFd(), inOffset, out.getFd(), outOffset, length, spliceFlags, sqeFlags.value(), id);
+
+        return id;
+    }
+
+    /**
+     * Copies {@code length} bytes starting at {@code offset} in {@code source} to the same offset in {@code target}
+     * with splice, the bytes never enter user space. Blocks until the copy is done and uses the ring for it, so no
+     * other requests may be in flight.
+     *
+     * @return the number of bytes copied
+     */
+    public long copy(FileDescriptor source, FileDescriptor target, long offset, long length) throws IOException {
+        return copy(source, target, offset, length, DEFAULT_COPY_CHUNK_SIZE, DEFAULT_COPY_CHUNKS_IN_FLIGHT);
+    }
+
+    /**
+     * @param chunkSize      bytes per splice, capped to what a pipe can hold
+     * @param chunksInFlight number of chunks, each with its own pipe, that are copied at the same time
+     */
+    public long copy(FileDescriptor source, FileDescriptor target, long offset, long length, int chunkSize, int chunksInFlight) throws IOException {
+        return new SpliceCopy(this, chunkSize, chunksInFlight).copy(source, target, offset, length);
+    }
+
+    /**
+     * Copies {@code length} bytes starting at {@code offset} in {@code source} to the same offset in {@code target}
+     * through the registered buffers {@code firstBufferIndex} up to {@code firstBufferIndex + buffers}. Each buffer
+     * has a read-fixed linked to a write-fixed in flight. Use it when splice is not available for the files. Blocks
+     * until the copy is done and uses the ring for it, so no other requests may be in flight.
+     *
+     * @return the number of bytes copied
+     */
+    public long copyFixed(FileDescriptor source, FileDescriptor target, long offset, long length, int firstBufferIndex, int buffers) throws IOException {
+        return new FixedBufferCopy(this, firstBufferIndex, buffers).copy(source, target, offset, length);
+    }
+
+    /**
+     * Puts a deadline on the operation that was prepared last, call it right after preparing the operation. When
+     * the operation did not complete within {@code timeout} it is cancelled and completes with {@code -ECANCELED} in
+     * its normal result. The completion of the timeout itself is not handed out.
+     *
+     * @throws IllegalStateException when nothing was prepared since the last submit or the submission queue is full
+     */
+    public void prepareLinkTimeout(Duration timeout) {
+        long id = ioUring.newRequest(OperationType.LINK_TIMEOUT, MemorySegment.NULL);
+        try {
+            ioUring.prepareLinkTimeout(id, timeout);
+        } catch (IllegalStateException e) {
+            ioUring.discardRequest(id);
+            throw e;
+        }
+    }
+
+    /**
+     * A timer that completes with a {@link TimeoutResult} once {@code timeout} passed.
+     */
+    public long prepareTimeout(Duration timeout, SqeOptions... sqeOptions) {
+        return prepareTimeout(timeout, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareTimeout(Duration timeout, SqeFlags sqeFlags) {
+        long id = ioUring.newRequest(OperationType.TIMEOUT, MemorySegment.NULL);
+
+        ioUring.prepareTimeout(id, timeout, 0, sqeFlags.value());
+
+        return id;
+    }
+
+    /**
+     * Cancels the operation with id {@code userData}. For a {@link Chain} or a read all only the first operation
+     * carries that id, cancelling it fails the rest. The cancelled operation still completes, with
+     * {@code -ECANCELED}, so its buffer is freed as usual.
+     */
+    public long prepareCancel(long userData, SqeOptions... sqeOptions) {
+        return prepareCancel(userData, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareCancel(long userData, SqeFlags sqeFlags) {
+        return prepareCancelInternal(userData, -1, 0, sqeFlags);
+    }
+
+    /**
+     * Cancels every operation on {@code fd}.
+     */
+    public long prepareCancel(FileDescriptor fd, SqeOptions... sqeOptions) {
+        return prepareCancel(fd, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareCancel(FileDescriptor fd, SqeFlags sqeFlags) {
+        return prepareCancelInternal(0, fd.getFd(), IORING_ASYNC_CANCEL_FD | IORING_ASYNC_CANCEL_ALL, sqeFlags);
+    }
+
+    /**
+     * Cancels every operation on the registered file at {@code fileIndex}.
+     */
+    public long prepareCancelDirect(int fileIndex, SqeOptions... sqeOptions) {
+        return prepareCancelDirect(fileIndex, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareCancelDirect(int fileIndex, SqeFlags sqeFlags) {
+        return prepareCancelInternal(0, fileIndex, IORING_ASYNC_CANCEL_FD | IORING_ASYNC_CANCEL_FD_FIXED | IORING_ASYNC_CANCEL_ALL, sqeFlags);
+    }
+
+    /**
+     * Cancels every operation in flight on the ring.
+     */
+    public long prepareCancelAll(SqeOptions... sqeOptions) {
+        return prepareCancelAll(SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareCancelAll(SqeFlags sqeFlags) {
+        return prepareCancelInternal(0, -1, IORING_ASYNC_CANCEL_ANY | IORING_ASYNC_CANCEL_ALL, sqeFlags);
+    }
+
+    private long prepareCancelInternal(long userData, int fd, int cancelFlags, SqeFlags sqeFlags) {
+        long id = ioUring.newRequest(OperationType.CANCEL, MemorySegment.NULL);
+
+        ioUring.prepareCancel(userData, fd, cancelFlags, sqeFlags.value(), id);
 
         return id;
     }
 
     public long prepareClose(FileDescriptor fd, SqeOptions... sqeOptions) {
-        return prepareCloseInternal(fd.getFd(), sqeOptions);
+        return prepareClose(fd, SqeFlags.of(sqeOptions));
+    }
+
+    public long prepareClose(FileDescriptor fd, SqeFlags sqeFlags) {
+        return prepareCloseInternal(fd.getFd(), sqeFlags);
     }
 
     public long prepareCloseDirect(int fileIndex, SqeOptions... sqeOptions) {
-        long id = ThreadLocalRandom.current().nextLong();
-        MemorySegment userData = UserData.createUserData(id, fileIndex, OperationType.CLOSE, MemorySegment.NULL);
+        return prepareCloseDirect(fileIndex, SqeFlags.of(sqeOptions));
+    }
 
-        MemorySegment sqe = getSqe(sqeOptions);
-        ioUring.prepareCloseDirect(sqe, fileIndex);
-        ioUring.setUserData(sqe, userData.address());
+    public long prepareCloseDirect(int fileIndex, SqeFlags sqeFlags) {
+        long id = ioUring.newRequest(OperationType.CLOSE, MemorySegment.NULL);
+
+        ioUring.prepareCloseDirect(fileIndex, sqeFlags.value(), id);
 
         return id;
     }
 
-    private long prepareReadInternal(int fdOrIndex, int readSize, long offset, SqeOptions[] sqeOptions) {
+    /**
+     * Allocates a statx buffer followed by the zero terminated path.
+     */
+    private static MemorySegment allocateStatx(String filePath) {
+        byte[] path = filePath.getBytes();
+        MemorySegment statx = NativeDispatcher.C.calloc(StatxResult.SIZE + path.length + 1);
+        MemorySegment.copy(path, 0, statx, JAVA_BYTE, StatxResult.SIZE, path.length);
+        return statx;
+    }
+
+    /**
+     * Copies the path into a zero terminated native buffer.
+     */
+    private static MemorySegment allocatePath(String filePath) {
+        byte[] path = filePath.getBytes();
+        MemorySegment pathBuffer = NativeDispatcher.C.malloc(path.length + 1);
+        MemorySegment.copy(path, 0, pathBuffer, JAVA_BYTE, 0, path.length);
+        pathBuffer.set(JAVA_BYTE, path.length, (byte) 0);
+        return pathBuffer;
+    }
+
+    private long prepareReadInternal(int fdOrIndex, int readSize, long offset, SqeFlags sqeFlags) {
         MemorySegment buff = NativeDispatcher.C.malloc(readSize);
-        long id = buff.address();
-        MemorySegment userData = UserData.createUserData(id, fdOrIndex, OperationType.READ, buff);
+        long id = ioUring.newRequest(OperationType.READ, buff);
+
+        ioUring.prepareRead(fdOrIndex, buff, offset, sqeFlags.value(), id);
+
+        return id;
+    }
 
-        MemorySegment sqe = getSqe(sqeOptions);
-        ioUring.prepareRead(sqe, fdOrIndex, buff, offset);
-        ioUring.setUserData(sqe, userData.address());
+    private long prepareReadInternal(int fdOrIndex, MemorySegment buffer, long offset, SqeFlags sqeFlags) {
+        long id = ioUring.newRequest(OperationType.READ, buffer, BufferOwner.CALLER);
+
+        ioUring.prepareRead(fdOrIndex, buffer, offset, sqeFlags.value(), id);
+
+        return id;
+    }
+
+    private long prepareReadInternal(int fdOrIndex, BufferRing bufferRing, int readSize, long offset, SqeFlags sqeFlags) {
+        if (readSize > bufferRing.bufferSize()) {
+            throw new IllegalArgumentException("Read size exceeds the buffer size of the buffer ring");
+        }
+
+        long id = ioUring.newRequest(OperationType.READ_SELECT, MemorySegment.NULL, bufferRing);
+
+        ioUring.prepareReadSelect(fdOrIndex, readSize, offset, bufferRing.groupId(), sqeFlags.value(), id);
 
         return id;
     }
 
-    private long prepareWriteInternal(int fdOrIndex, MemorySegment bytes, long offset, SqeOptions... sqeOptions) {
-        long id = bytes.address() + ThreadLocalRandom.current().nextLong();;
-        MemorySegment userData = UserData.createUserData(id, fdOrIndex, OperationType.WRITE_FIXED, bytes);
+    private long prepareWriteInternal(int fdOrIndex, MemorySegment bytes, long offset, SqeFlags sqeFlags) {
+        long id = ioUring.newRequest(OperationType.WRITE_FIXED, bytes);
 
-        MemorySegment sqe = getSqe(sqeOptions);
-        ioUring.prepareWrite(sqe, fdOrIndex, bytes, offset);
-        ioUring.setUserData(sqe, userData.address());
+        ioUring.prepareWrite(fdOrIndex, bytes, offset, sqeFlags.value(), id);
 
         return id;
     }
 
-    private long prepareWriteInternal(int fdOrIndex, byte[] bytes, long offset, SqeOptions[] sqeOptions) {
+    private long prepareWriteInternal(int fdOrIndex, byte[] bytes, long offset, SqeFlags sqeFlags) {
         MemorySegment buff = NativeDispatcher.C.alloc(bytes.length);
-        long id = buff.address() + ThreadLocalRandom.current().nextLong();
-        MemorySegment userData = UserData.createUserData(id, fdOrIndex, OperationType.WRITE, buff);
+        long id = ioUring.newRequest(OperationType.WRITE, buff);
 
-        MemorySegment sqe = getSqe(sqeOptions);
-        ioUring.setUserData(sqe, userData.address());
         MemorySegment.copy(bytes, 0, buff, JAVA_BYTE, 0, bytes.length);
-        ioUring.prepareWrite(sqe, fdOrIndex, buff, offset);
+        ioUring.prepareWrite(fdOrIndex, buff, offset, sqeFlags.value(), id);
 
         return id;
     }
 
-    private long prepareReadFixedInternal(int fdOrIndex, int readSize, long offset, int bufferIndex, SqeOptions[] sqeOptions) {
+    private long prepareReadFixedInternal(int fdOrIndex, int readSize, long offset, int bufferIndex, SqeFlags sqeFlags) {
         if (bufferIndex < 0 || bufferIndex >= registeredBuffers.size()) {
             throw new IllegalArgumentException("Buffer index out of range: " + bufferIndex);
         }
@@ -165,17 +743,43 @@ public class JUring implements AutoCloseable {
             throw new IllegalArgumentException("Read size exceeds registered buffer size");
         }
 
-        long id = registeredBuffer.address();
-        MemorySegment userData = UserData.createUserData(id, fdOrIndex, OperationType.READ, registeredBuffer);
+        long id = ioUring.newRequest(OperationType.READ_FIXED, registeredBuffer);
+
+        ioUring.prepareReadFixed(fdOrIndex, registeredBuffer, readSize, offset, bufferIndex, sqeFlags.value(), id);
+
+        return id;
+    }
+
+    private long prepareReadFixedInternal(int fdOrIndex, FixedBufferPool.Lease lease, int readSize, long offset, SqeFlags sqeFlags) {
+        MemorySegment buffer = lease.buffer();
+        if (readSize > buffer.byteSize()) {
+            throw new IllegalArgumentException("Read size exceeds registered buffer size");
+        }
+
+        long id = ioUring.newRequest(OperationType.READ_FIXED, buffer, lease);
+
+        ioUring.prepareReadFixed(fdOrIndex, buffer, readSize, offset, lease.bufferIndex(), sqeFlags.value(), id);
+
+        return id;
+    }
+
+    private long prepareFallocateInternal(int fdOrIndex, int mode, long offset, long length, SqeFlags sqeFlags) {
+        long id = ioUring.newRequest(OperationType.SPACE, MemorySegment.NULL);
+
+        ioUring.prepareFallocate(fdOrIndex, mode, offset, length, sqeFlags.value(), id);
+
+        return id;
+    }
+
+    private long prepareFtruncateInternal(int fdOrIndex, long length, SqeFlags sqeFlags) {
+        long id = ioUring.newRequest(OperationType.SPACE, MemorySegment.NULL);
 
-        MemorySegment sqe = getSqe(sqeOptions);
-        ioUring.prepareReadFixed(sqe, fdOrIndex, registeredBuffer, offset, bufferIndex);
-        ioUring.setUserData(sqe, userData.address());
+        ioUring.prepareFtruncate(fdOrIndex, length, sqeFlags.value(), id);
 
         return id;
     }
 
-    private long prepareWriteFixedInternal(int fdOrIndex, byte[] bytes, long offset, int bufferIndex, SqeOptions[] sqeOptions) {
+    private long prepareWriteFixedInternal(int fdOrIndex, byte[] bytes, long offset, int bufferIndex, SqeFlags sqeFlags) {
         if (bufferIndex < 0 || bufferIndex >= registeredBuffers.size()) {
             throw new IllegalArgumentException("Buffer index out of range: " + bufferIndex);
         }
@@ -185,41 +789,121 @@ public class JUring implements AutoCloseable {
             throw new IllegalArgumentException("Write size exceeds registered buffer size");
         }
 
-        long id = registeredBuffer.address() + ThreadLocalRandom.current().nextLong();
-        MemorySegment userData = UserData.createUserData(id, fdOrIndex, OperationType.WRITE_FIXED, registeredBuffer);
+        long id = ioUring.newRequest(OperationType.WRITE_FIXED, registeredBuffer);
 
-        MemorySegment sqe = getSqe(sqeOptions);
-        ioUring.setUserData(sqe, userData.address());
         MemorySegment.copy(bytes, 0, registeredBuffer, JAVA_BYTE, 0, bytes.length);
-        ioUring.prepareWriteFixed(sqe, fdOrIndex, registeredBuffer, bytes.length, offset, bufferIndex);
+        ioUring.prepareWriteFixed(fdOrIndex, registeredBuffer, bytes.length, offset, bufferIndex, sqeFlags.value(), id);
 
         return id;
     }
 
-    private long prepareCloseInternal(int fdOrIndex, SqeOptions[] sqeOptions) {
-        long id = ThreadLocalRandom.current().nextLong();
-        MemorySegment userData = UserData.createUserData(id, fdOrIndex, OperationType.CLOSE, MemorySegment.NULL);
+    private long prepareVectoredInternal(OperationType type, Opcode opcode, int fdOrIndex, MemorySegment[] buffers, long offset, int rwFlags, int bufferIndex, SqeFlags sqeFlags) {
+        if (buffers.length == 0) {
+            throw new IllegalArgumentException("At least one buffer is needed");
+        }
 
-        MemorySegment sqe = getSqe(sqeOptions);
+        MemorySegment iovecs = NativeDispatcher.C.allocateIovecArray(buffers);
+        long id = ioUring.newRequest(type, iovecs);
 
-        ioUring.prepareClose(sqe, fdOrIndex);
-        ioUring.setUserData(sqe, userData.address());
+        ioUring.prepareVectored(opcode, fdOrIndex, iovecs, buffers.length, offset, rwFlags, bufferIndex, sqeFlags.value(), id);
 
         return id;
     }
 
-    private MemorySegment getSqe(SqeOptions[] sqeOptions) {
-        MemorySegment sqe = ioUring.getSqe();
-        if (sqe != null) {
-            ioUring.setSqeFlag(sqe, sqeOptions);
+    private void checkInRegisteredBuffer(MemorySegment[] buffers, int bufferIndex) {
+        if (bufferIndex < 0 || bufferIndex >= registeredBuffers.size()) {
+            throw new IllegalArgumentException("Buffer index out of range: " + bufferIndex);
+        }
+
+        MemorySegment registeredBuffer = registeredBuffers.get(bufferIndex);
+        long start = registeredBuffer.address();
+        long end = start + registeredBuffer.byteSize();
+        for (MemorySegment buffer : buffers) {
+            if (buffer.address() < start || buffer.address() + buffer.byteSize() > end) {
+                throw new IllegalArgumentException("Buffer is not part of registered buffer " + bufferIndex);
+            }
         }
-        return sqe;
+    }
+
+    private long prepareFsyncInternal(int fdOrIndex, boolean dataSync, SqeFlags sqeFlags) {
+        long id = ioUring.newRequest(OperationType.SYNC, MemorySegment.NULL);
+
+        ioUring.prepareFsync(fdOrIndex, dataSync ? IORING_FSYNC_DATASYNC : 0, sqeFlags.value(), id);
+
+        return id;
+    }
+
+    private long prepareSyncFileRangeInternal(int fdOrIndex, long offset, int length, int flags, SqeFlags sqeFlags) {
+        long id = ioUring.newRequest(OperationType.SYNC, MemorySegment.NULL);
+
+        ioUring.prepareSyncFileRange(fdOrIndex, length, offset, flags, sqeFlags.value(), id);
+
+        return id;
+    }
+
+    private long prepareWriteFixedInternal(int fdOrIndex, int length, long offset, int bufferIndex, SqeFlags sqeFlags) {
+        MemorySegment registeredBuffer = registeredBuffer(bufferIndex);
+        if (length > registeredBuffer.byteSize()) {
+            throw new IllegalArgumentException("Write size exceeds registered buffer size");
+        }
+
+        long id = ioUring.newRequest(OperationType.WRITE_FIXED, registeredBuffer);
+
+        ioUring.prepareWriteFixed(fdOrIndex, registeredBuffer, length, offset, bufferIndex, sqeFlags.value(), id);
+
+        return id;
+    }
+
+    private long prepareCloseInternal(int fdOrIndex, SqeFlags sqeFlags) {
+        long id = ioUring.newRequest(OperationType.CLOSE, MemorySegment.NULL);
+
+        ioUring.prepareClose(fdOrIndex, sqeFlags.value(), id);
+
+        return id;
+    }
+
+    /**
+     * Starts a chain of linked operations on this ring.
+     */
+    public Chain chain() {
+        return new Chain(this);
     }
 
     public void submit() {
         ioUring.submit();
     }
 
+    /**
+     * Runs the completion work the kernel deferred for this ring, so its completions can be reaped. A ring set up
+     * with {@link IoUringOptions#IORING_SETUP_DEFER_TASKRUN} only does this work when the thread that created it
+     * calls this method, waits for results or peeks while the queue is empty.
+     *
+     * @return the number of completions that are ready
+     */
+    public int processEvents() {
+        return ioUring.processEvents();
+    }
+
+    /**
+     * Submits and waits for at least {@code minComplete} results with one call into the kernel when it can,
+     * and returns every result that is ready.
+     */
+    public List<Result> submitAndWait(int minComplete) {
+        return ioUring.submitAndWait(minComplete);
+    }
+
+    /**
+     * Submits and waits until {@code minComplete} completions are ready or {@code timeout} passed, then calls the
+     * handler for every completion that is ready, like {@link #reapCompletions(CompletionHandler, int)}.
+     * Needs {@link RingFeature#IORING_FEAT_EXT_ARG}.
+     *
+     * @return the number of completions handled
+     * @throws IllegalStateException when the kernel does not support IORING_FEAT_EXT_ARG
+     */
+    public int submitAndReap(CompletionHandler handler, int minComplete, Duration timeout) {
+        return ioUring.submitAndReap(handler, minComplete, timeout);
+    }
+
     public List<Result> peekForBatchResult(int batchSize) {
         return ioUring.peekForBatchResult(batchSize);
     }
@@ -232,6 +916,50 @@ public class JUring implements AutoCloseable {
         return ioUring.waitForResult();
     }
 
+    /**
+     * Calls the handler for up to {@code max} completions that are ready, without waiting and without
+     * creating result objects. Buffers JUring allocated for an operation are freed once the handler returns,
+     * use {@link #completionBuffer(long)} inside the handler to read them or pass your own buffer when preparing.
+     * Buffers selected from a {@link BufferRing} stay with the caller until they are recycled, the buffer id is in
+     * the upper 16 bits of the flags. Leased buffers stay with the caller until the lease is closed.
+     *
+     * @return the number of completions handled
+     */
+    public int reapCompletions(CompletionHandler handler, int max) {
+        return ioUring.reapCompletions(handler, max);
+    }
+
+    /**
+     * Adds the completions that are ready to the batch, up to its remaining capacity, without waiting.
+     *
+     * @return the number of completions added
+     */
+    public int reapCompletions(CompletionBatch batch) {
+        return ioUring.reapCompletions(batch);
+    }
+
+    /**
+     * Buffer of the operation with the given id, only valid inside {@link CompletionHandler#onCompletion}.
+     */
+    public MemorySegment completionBuffer(long id) {
+        return ioUring.requestBuffer(id);
+    }
+
+    /**
+     * Registers a ring of {@code entries} buffers of {@code bufferSize} bytes under the given buffer group.
+     *
+     * @param entries a power of two, up to 32768
+     */
+    public BufferRing registerBufferRing(int groupId, int entries, int bufferSize) {
+        return ioUring.registerBufferRing(groupId, entries, bufferSize);
+    }
+
+    /**
+     * Registers {@code nrOfBuffers} buffers of {@code size} bytes, they replace the buffers registered before only
+     * when the kernel accepted them.
+     *
+     * @throws RuntimeException when the kernel rejected the buffers
+     */
     public MemorySegment[] registerBuffers(int size, int nrOfBuffers) {
         MemorySegment[] result = ioUring.registerBuffers(size, nrOfBuffers);
         registeredBuffers.clear();
@@ -239,15 +967,43 @@ public class JUring implements AutoCloseable {
         return result;
     }
 
+    /**
+     * Registers {@code nrOfBuffers} buffers of {@code size} bytes like {@link #registerBuffers(int, int)} and hands
+     * them out through a pool.
+     */
+    public FixedBufferPool registerBufferPool(int size, int nrOfBuffers) {
+        return new FixedBufferPool(registerBuffers(size, nrOfBuffers));
+    }
+
     public int registerFiles(FileDescriptor... fileDescriptors) {
         int[] fds = Arrays.stream(fileDescriptors).mapToInt(FileDescriptor::getFd).toArray();
         return ioUring.registerFiles(fds);
     }
 
+    /**
+     * Registers an empty file table of {@code count} slots, to be filled by direct opens.
+     */
+    public int registerFilesSparse(int count) {
+        int[] fds = new int[count];
+        Arrays.fill(fds, -1);
+        return ioUring.registerFiles(fds);
+    }
+
     public int registerFilesUpdate(int offset, int[] fileDescriptors) {
         return ioUring.registerFilesUpdate(offset, fileDescriptors);
     }
 
+    LibUringDispatcher ioUring() {
+        return ioUring;
+    }
+
+    MemorySegment registeredBuffer(int bufferIndex) {
+        if (bufferIndex < 0 || bufferIndex >= registeredBuffers.size()) {
+            throw new IllegalArgumentException("Buffer index out of range: " + bufferIndex);
+        }
+        return registeredBuffers.get(bufferIndex);
+    }
+
     @Override
     public void close() {
         ioUring.close();
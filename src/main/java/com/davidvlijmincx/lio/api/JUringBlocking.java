@@ -1,67 +1,146 @@
 package com.davidvlijmincx.lio.api;
 
 
+import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
 public class JUringBlocking implements AutoCloseable {
 
+    private static final int EFD_CLOEXEC = 0x80000;
+
+    /**
+     * @deprecated the poller sleeps until the ring signals a completion, it no longer sleeps for a timeout
+     */
+    @Deprecated
     public final Duration timeout;
-    private final Map<Long, CompletableFuture<? extends Result>> requests;
+    private final Map<Long, CancellableRequest<?>> requests;
+    private final ReentrantLock submissionLock = new ReentrantLock();
     private final JUring jUring;
-    private boolean running = true;
+    private final Arena arena;
+    private final int eventFd;
+    private final boolean singleIssuer;
+    private volatile boolean running = true;
+    private volatile long idleWaits;
     private Thread pollerThread;
 
     public JUringBlocking(int queueDepth, IoUringOptions... ioUringFlags) {
         this(queueDepth, Duration.ofMillis(-1), ioUringFlags);
     }
 
+    /**
+     * @deprecated the timeout is ignored, use {@link #JUringBlocking(int, IoUringOptions...)}
+     */
+    @Deprecated
     public JUringBlocking(int queueDepth, Duration timeout, IoUringOptions... ioUringFlags) {
+        // both only post completions once the submitting thread enters the ring, the poller would wait forever
+        if ((IoUringOptions.combineOptions(ioUringFlags) & IoUringOptions.IORING_SETUP_DEFER_TASKRUN.value) != 0) {
+            throw new IllegalArgumentException("Completions are reaped on a poller thread, which a ring with IORING_SETUP_DEFER_TASKRUN does not allow");
+        }
+        if ((IoUringOptions.combineOptions(ioUringFlags) & IoUringOptions.IORING_SETUP_COOP_TASKRUN.value) != 0) {
+            throw new IllegalArgumentException("Completions are reaped on a poller thread, which a ring with IORING_SETUP_COOP_TASKRUN does not allow");
+        }
         this.jUring = new JUring(queueDepth, ioUringFlags);
+        this.singleIssuer = (IoUringOptions.combineOptions(ioUringFlags) & IoUringOptions.IORING_SETUP_SINGLE_ISSUER.value) != 0;
         this.timeout = timeout;
         this.requests = new ConcurrentHashMap<>(queueDepth * 6, 0.5f);
+        this.arena = Arena.ofShared();
+        this.eventFd = NativeDispatcher.C.eventfd(EFD_CLOEXEC);
+        jUring.ioUring().registerEventfd(eventFd);
         startPoller();
     }
 
+    /*
+     The kernel adds to the eventfd counter for every completion it posts, so the poller reaps until the queue is
+     empty and then blocks in read until the counter is above zero again. Completions posted between the last peek and
+     the read leave the counter up, so the read returns right away.
+     */
     private void startPoller() {
+        MemorySegment counter = arena.allocate(Long.BYTES);
         pollerThread = Thread.ofPlatform().daemon(true).start(() -> {
             while (running) {
-                jUring.peekForBatchResult(100).forEach(result -> {
-                    var request = requests.remove(result.id());
-                    switch (result) {
-                        case ReadResult r -> ((CompletableFuture<ReadResult>) request).complete(r);
-                        case WriteResult r -> ((CompletableFuture<WriteResult>) request).complete(r);
-                        case OpenResult r -> ((CompletableFuture<OpenResult>) request).complete(r);
-                        case CloseResult r -> ((CompletableFuture<CloseResult>) request).complete(r);
-                    }
-                });
-                sleepInterval();
+                List<Result> results = jUring.peekForBatchResult(100);
+                if (results.isEmpty()) {
+                    idleWaits++;
+                    NativeDispatcher.C.read(eventFd, counter);
+                    continue;
+                }
+                results.forEach(this::complete);
+                // the read and close of a read all whose open was just reaped
+                if (jUring.ioUring().readAllPending()) {
+                    submit();
+                }
             }
         });
     }
 
-    private void sleepInterval() {
-        try {
-            Thread.sleep(timeout);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+    /**
+     * Number of times the poller found nothing to reap and blocked on the eventfd.
+     */
+    long idleWaits() {
+        return idleWaits;
+    }
+
+    void complete(Result result) {
+        var request = requests.remove(result.id());
+        if (request != null) {
+            request.deliver(result);
         }
     }
 
     public void submit() {
-        jUring.submit();
+        submissionLock.lock();
+        try {
+            jUring.submit();
+        } finally {
+            submissionLock.unlock();
+        }
     }
 
+    /*
+     Every thread that prepares or submits holds the submission lock, so an entry only reaches the kernel once the
+     future of its request is registered, also when a full queue is submitted while preparing the next request.
+     */
     private <T extends Result> Future<T> prepareAsync(Supplier<Long> prepareOperation) {
-        long id = prepareOperation.get();
-        CompletableFuture<T> result = new CompletableFuture<>();
-        requests.put(id, result);
-        return result;
+        return prepareAsync(prepareOperation, true);
+    }
+
+    /**
+     * @param ownsBuffer whether the buffer of a read was allocated by JUring, fixed reads use a registered buffer
+     */
+    private <T extends Result> Future<T> prepareAsync(Supplier<Long> prepareOperation, boolean ownsBuffer) {
+        submissionLock.lock();
+        try {
+            long id = prepareOperation.get();
+            CancellableRequest<T> result = new CancellableRequest<>(id, ownsBuffer);
+            requests.put(id, result);
+            return result;
+        } finally {
+            submissionLock.unlock();
+        }
+    }
+
+    /**
+     * Number of requests whose completion the poller has not handled yet.
+     */
+    int pendingRequests() {
+        return requests.size();
+    }
+
+    public Future<CancelResult> prepareCancelAll() {
+        return prepareAsync(jUring::prepareCancelAll);
+    }
+
+    public Future<CancelResult> prepareCancel(FileDescriptor fd) {
+        return prepareAsync(() -> jUring.prepareCancel(fd));
     }
 
     public Future<ReadResult> prepareRead(FileDescriptor fd, int size, long offset) {
@@ -72,16 +151,63 @@ public class JUringBlocking implements AutoCloseable {
         return prepareAsync(() -> jUring.prepareWrite(fd, bytes, offset));
     }
 
+    /**
+     * Reads with a deadline, when the read did not complete within {@code timeout} the result is {@code -ECANCELED}.
+     */
+    public Future<ReadResult> prepareRead(FileDescriptor fd, int size, long offset, Duration timeout) {
+        return prepareAsync(() -> withTimeout(jUring.prepareRead(fd, size, offset), timeout));
+    }
+
+    public Future<ReadResult> prepareRead(int indexFD, int readSize, long offset, Duration timeout, SqeOptions... sqeOptions) {
+        return prepareAsync(() -> withTimeout(jUring.prepareRead(indexFD, readSize, offset, sqeOptions), timeout));
+    }
+
+    /**
+     * Writes with a deadline, when the write did not complete within {@code timeout} the result is {@code -ECANCELED}.
+     */
+    public Future<WriteResult> prepareWrite(FileDescriptor fd, byte[] bytes, long offset, Duration timeout) {
+        return prepareAsync(() -> withTimeout(jUring.prepareWrite(fd, bytes, offset), timeout));
+    }
+
+    public Future<WriteResult> prepareWrite(int indexFD, byte[] bytes, long offset, Duration timeout, SqeOptions... sqeOptions) {
+        return prepareAsync(() -> withTimeout(jUring.prepareWrite(indexFD, bytes, offset, sqeOptions), timeout));
+    }
+
+    /**
+     * Opens with a deadline, when the open did not complete within {@code timeout} the result is {@code -ECANCELED}.
+     */
+    public Future<OpenResult> prepareOpen(String filePath, int flags, int mode, Duration timeout) {
+        return prepareAsync(() -> withTimeout(jUring.prepareOpen(filePath, flags, mode), timeout));
+    }
+
+    public Future<CloseResult> prepareClose(FileDescriptor fd, Duration timeout) {
+        return prepareAsync(() -> withTimeout(jUring.prepareClose(fd), timeout));
+    }
+
+    public Future<StatxResult> prepareStatx(String filePath, Duration timeout) {
+        return prepareAsync(() -> withTimeout(jUring.prepareStatx(filePath), timeout));
+    }
+
+    public Future<TimeoutResult> prepareTimeout(Duration timeout) {
+        return prepareAsync(() -> jUring.prepareTimeout(timeout));
+    }
+
+    // runs inside prepareAsync, so no other thread can prepare or submit between the operation and its timeout
+    private long withTimeout(long id, Duration timeout) {
+        jUring.prepareLinkTimeout(timeout);
+        return id;
+    }
+
     public Future<ReadResult> prepareRead(int indexFD, int readSize, long offset, SqeOptions... sqeOptions) {
         return prepareAsync(() -> jUring.prepareRead(indexFD, readSize, offset, sqeOptions));
     }
 
     public Future<ReadResult> prepareReadFixed(FileDescriptor fd, int readSize, long offset, int bufferIndex, SqeOptions... sqeOptions) {
-        return prepareAsync(() -> jUring.prepareReadFixed(fd, readSize, offset, bufferIndex, sqeOptions));
+        return prepareAsync(() -> jUring.prepareReadFixed(fd, readSize, offset, bufferIndex, sqeOptions), false);
     }
 
     public Future<ReadResult> prepareReadFixed(int indexFD, int readSize, long offset, int bufferIndex, SqeOptions... sqeOptions) {
-        return prepareAsync(() -> jUring.prepareReadFixed(indexFD, readSize, offset, bufferIndex, sqeOptions));
+        return prepareAsync(() -> jUring.prepareReadFixed(indexFD, readSize, offset, bufferIndex, sqeOptions), false);
     }
 
     public Future<WriteResult> prepareWrite(int indexFD, byte[] bytes, long offset, SqeOptions... sqeOptions) {
@@ -96,6 +222,59 @@ public class JUringBlocking implements AutoCloseable {
         return prepareAsync(() -> jUring.prepareWriteFixed(indexFD, bytes, offset, bufferIndex, sqeOptions));
     }
 
+    public Future<WriteResult> prepareFsync(FileDescriptor fd, boolean dataSync, SqeOptions... sqeOptions) {
+        return prepareAsync(() -> jUring.prepareFsync(fd, dataSync, sqeOptions));
+    }
+
+    public Future<WriteResult> prepareFsync(int indexFD, boolean dataSync, SqeOptions... sqeOptions) {
+        return prepareAsync(() -> jUring.prepareFsync(indexFD, dataSync, sqeOptions));
+    }
+
+    public Future<WriteResult> prepareSyncFileRange(FileDescriptor fd, long offset, int length, int flags, SqeOptions... sqeOptions) {
+        return prepareAsync(() -> jUring.prepareSyncFileRange(fd, offset, length, flags, sqeOptions));
+    }
+
+    public Future<WriteResult> prepareSyncFileRange(int indexFD, long offset, int length, int flags, SqeOptions... sqeOptions) {
+        return prepareAsync(() -> jUring.prepareSyncFileRange(indexFD, offset, length, flags, sqeOptions));
+    }
+
+    public Future<WriteResult> prepareFallocate(FileDescriptor fd, int mode, long offset, long length, SqeOptions... sqeOptions) {
+        return prepareAsync(() -> jUring.prepareFallocate(fd, mode, offset, length, sqeOptions));
+    }
+
+    public Future<WriteResult> prepareFallocate(int indexFD, int mode, long offset, long length, SqeOptions... sqeOptions) {
+        return prepareAsync(() -> jUring.prepareFallocate(indexFD, mode, offset, length, sqeOptions));
+    }
+
+    public Future<WriteResult> prepareFtruncate(FileDescriptor fd, long length, SqeOptions... sqeOptions) {
+        return prepareAsync(() -> jUring.prepareFtruncate(fd, length, sqeOptions));
+    }
+
+    public Future<WriteResult> prepareFtruncate(int indexFD, long length, SqeOptions... sqeOptions) {
+        return prepareAsync(() -> jUring.prepareFtruncate(indexFD, length, sqeOptions));
+    }
+
+    public Future<StatxResult> prepareStatx(String filePath, SqeOptions... sqeOptions) {
+        return prepareAsync(() -> jUring.prepareStatx(filePath, sqeOptions));
+    }
+
+    public Future<StatxResult> prepareStatx(FileDescriptor fd, SqeOptions... sqeOptions) {
+        return prepareAsync(() -> jUring.prepareStatx(fd, sqeOptions));
+    }
+
+    /**
+     * Reads the whole file into one buffer sized to the file and submits, see {@link JUring#prepareReadAll(String, int)}.
+     * The read is submitted by the poller thread, so this needs a ring without IORING_SETUP_SINGLE_ISSUER.
+     */
+    public Future<ReadResult> readAll(String filePath, int fileIndex) {
+        if (singleIssuer) {
+            throw new IllegalStateException("The read of a read all is submitted by the poller thread, which a ring with IORING_SETUP_SINGLE_ISSUER does not allow");
+        }
+        Future<ReadResult> result = prepareAsync(() -> jUring.prepareReadAll(filePath, fileIndex));
+        submit();
+        return result;
+    }
+
     public Future<OpenResult> prepareOpen(String filePath, int flags, int mode, SqeOptions... sqeOptions) {
         return prepareAsync(() -> jUring.prepareOpen(filePath, flags, mode, sqeOptions));
     }
@@ -120,18 +299,88 @@ public class JUringBlocking implements AutoCloseable {
         return jUring.registerFiles(fileDescriptors);
     }
 
+    public int registerFilesSparse(int count) {
+        return jUring.registerFilesSparse(count);
+    }
+
     public int registerFilesUpdate(int offset, int[] fileDescriptors) {
         return jUring.registerFilesUpdate(offset, fileDescriptors);
     }
 
+    /**
+     * Cancelling the future also cancels its operation in the ring. The operation still completes, the poller
+     * frees its buffer once it does.
+     */
+    final class CancellableRequest<T extends Result> extends CompletableFuture<T> {
+
+        private final long id;
+        private final boolean ownsBuffer;
+        private volatile Future<CancelResult> ringCancel;
+
+        CancellableRequest(long id, boolean ownsBuffer) {
+            this.id = id;
+            this.ownsBuffer = ownsBuffer;
+        }
+
+        /**
+         * Completes the future with the result of its operation. A cancel can land between the poller taking the
+         * request and completing it, the result then has no taker and its buffer is freed here.
+         */
+        @SuppressWarnings("unchecked")
+        void deliver(Result result) {
+            boolean delivered = switch (result) {
+                case ReadResult r -> ((CompletableFuture<ReadResult>) this).complete(r);
+                case PooledReadResult r -> ((CompletableFuture<PooledReadResult>) this).complete(r);
+                case WriteResult r -> ((CompletableFuture<WriteResult>) this).complete(r);
+                case OpenResult r -> ((CompletableFuture<OpenResult>) this).complete(r);
+                case CloseResult r -> ((CompletableFuture<CloseResult>) this).complete(r);
+                case ChainResult r -> ((CompletableFuture<ChainResult>) this).complete(r);
+                case StatxResult r -> ((CompletableFuture<StatxResult>) this).complete(r);
+                case TimeoutResult r -> ((CompletableFuture<TimeoutResult>) this).complete(r);
+                case CancelResult r -> ((CompletableFuture<CancelResult>) this).complete(r);
+            };
+            if (delivered) {
+                return;
+            }
+            if (result instanceof PooledReadResult r) {
+                r.freeBuffer();
+            } else if (result instanceof ReadResult r && ownsBuffer) {
+                r.freeBuffer();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                ringCancel = prepareAsync(() -> jUring.prepareCancel(id));
+                submit();
+            }
+            return cancelled;
+        }
+
+        /**
+         * The cancel of the operation in the ring, null while the future is not cancelled.
+         */
+        Future<CancelResult> ringCancel() {
+            return ringCancel;
+        }
+    }
+
     @Override
     public void close() {
         running = false;
+        // wakes the poller when it is blocked on the eventfd
+        MemorySegment wakeup = arena.allocate(Long.BYTES);
+        wakeup.set(ValueLayout.JAVA_LONG, 0, 1L);
+        NativeDispatcher.C.write(eventFd, wakeup);
         try {
             pollerThread.join();
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         }
         jUring.close();
+        NativeDispatcher.C.close(eventFd);
+        arena.close();
     }
 }
@@ -1,9 +1,14 @@
 package com.davidvlijmincx.lio.api;
 
 import com.davidvlijmincx.lio.api.functions.Calloc;
+import com.davidvlijmincx.lio.api.functions.Eventfd;
+import com.davidvlijmincx.lio.api.functions.Fcntl;
 import com.davidvlijmincx.lio.api.functions.Malloc;
 import com.davidvlijmincx.lio.api.functions.Open;
+import com.davidvlijmincx.lio.api.functions.Pipe2;
+import com.davidvlijmincx.lio.api.functions.Read;
 import com.davidvlijmincx.lio.api.functions.Strerror;
+import com.davidvlijmincx.lio.api.functions.Write;
 
 import java.lang.foreign.*;
 import java.lang.invoke.MethodHandle;
@@ -12,13 +17,19 @@ import java.util.function.Consumer;
 import java.util.function.IntConsumer;
 
 import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
 
 record LibCDispatcher(Consumer<MemorySegment> free,
                       Open open,
                       IntConsumer close,
                       Malloc malloc,
                       Strerror strerror,
-                      Calloc calloc) {
+                      Calloc calloc,
+                      Pipe2 pipe2,
+                      Fcntl fcntl,
+                      Eventfd eventfd,
+                      Read read,
+                      Write write) {
 
     private static final Linker linker = Linker.nativeLinker();
 
@@ -29,13 +40,22 @@ record LibCDispatcher(Consumer<MemorySegment> free,
                 link(IntConsumer.class, "close", FunctionDescriptor.ofVoid(ValueLayout.JAVA_INT), true),
                 link(Malloc.class, "malloc", FunctionDescriptor.of(ADDRESS, ValueLayout.JAVA_LONG), true),
                 link(Strerror.class, "strerror", FunctionDescriptor.of(ADDRESS, ValueLayout.JAVA_INT), false),
-                link(Calloc.class, "calloc", FunctionDescriptor.of(ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG), true)
+                link(Calloc.class, "calloc", FunctionDescriptor.of(ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG), true),
+                link(Pipe2.class, "pipe2", FunctionDescriptor.of(ValueLayout.JAVA_INT, ADDRESS, ValueLayout.JAVA_INT), false),
+                link(Fcntl.class, "fcntl", FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT), Linker.Option.firstVariadicArg(2)),
+                link(Eventfd.class, "eventfd", FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT), false),
+                link(Read.class, "read", FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT, ADDRESS, ValueLayout.JAVA_LONG), false),
+                link(Write.class, "write", FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT, ADDRESS, ValueLayout.JAVA_LONG), false)
         );
     }
 
     private static <T> T link(Class<T> type, String name, FunctionDescriptor descriptor, boolean critical) {
+        return link(type, name, descriptor, Linker.Option.critical(critical));
+    }
+
+    private static <T> T link(Class<T> type, String name, FunctionDescriptor descriptor, Linker.Option option) {
         MemorySegment symbol = linker.defaultLookup().findOrThrow(name);
-        MethodHandle handle = linker.downcallHandle(symbol, descriptor, Linker.Option.critical(critical));
+        MethodHandle handle = linker.downcallHandle(symbol, descriptor, option);
         return MethodHandleProxies.asInterfaceInstance(type, handle);
     }
 
@@ -51,6 +71,42 @@ record LibCDispatcher(Consumer<MemorySegment> free,
         close.accept(fd);
     }
 
+    /**
+     * Creates a pipe and returns its read end followed by its write end.
+     */
+    int[] pipe(int flags) {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment fds = arena.allocate(JAVA_INT, 2);
+            if (pipe2.pipe2(fds, flags) < 0) {
+                throw new IllegalStateException("Failed to create a pipe");
+            }
+            return fds.toArray(JAVA_INT);
+        }
+    }
+
+    int fcntl(int fd, int cmd, int arg) {
+        return fcntl.fcntl(fd, cmd, arg);
+    }
+
+    int eventfd(int flags) {
+        int fd = eventfd.eventfd(0, flags);
+        if (fd < 0) {
+            throw new IllegalStateException("Failed to create an eventfd");
+        }
+        return fd;
+    }
+
+    /**
+     * Reads into the whole segment, blocks like {@code read(2)} does.
+     */
+    long read(int fd, MemorySegment buffer) {
+        return read.read(fd, buffer, buffer.byteSize());
+    }
+
+    long write(int fd, MemorySegment buffer) {
+        return write.write(fd, buffer, buffer.byteSize());
+    }
+
     MemorySegment malloc(long size) {
         return malloc.malloc(size).reinterpret(size);
     }
@@ -79,6 +135,21 @@ record LibCDispatcher(Consumer<MemorySegment> free,
         return new IovecStructure(iovecArray, buffers);
     }
 
+    /**
+     * Builds a malloc'd iovec array that points at the given buffers, free it once the operation completed.
+     */
+    MemorySegment allocateIovecArray(MemorySegment[] buffers) {
+        MemorySegment iovecArray = malloc(Iovec.layout().byteSize() * buffers.length);
+
+        for (int i = 0; i < buffers.length; i++) {
+            MemorySegment nthIovec = Iovec.asSlice(iovecArray, i);
+            Iovec.iov_base(nthIovec, buffers[i]);
+            Iovec.iov_len(nthIovec, buffers[i].byteSize());
+        }
+
+        return iovecArray;
+    }
+
     record IovecStructure(MemorySegment iovecArray, MemorySegment[] buffers) {
     }
 
@@ -6,8 +6,11 @@ import java.lang.foreign.*;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandleProxies;
 import java.lang.invoke.VarHandle;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static com.davidvlijmincx.lio.api.DirectoryFileDescriptorFlags.AT_FDCWD;
 import static com.davidvlijmincx.lio.api.IoUringOptions.IORING_SETUP_ATTACH_WQ;
@@ -15,40 +18,54 @@ import static java.lang.foreign.ValueLayout.*;
 
 record LibUringDispatcher(Arena arena,
                           MemorySegment ring,
+                          RequestSlots requestSlots,
+                          SubmissionEngine engine,
+                          Thread owner,
+                          SubmissionQueue submissionQueue,
+                          CompletionQueue completionQueue,
+                          Batcher batcher,
+                          Queue<Long> readAllFollowUps,
                           MemorySegment cqePtr,
-                          MemorySegment cqePtrPtr,
+                          MemorySegment waitTimeout,
                           GetSqe sqe,
-                          SetSqeFlag setSqeFlag,
-                          PrepOpenAt prepOpenAt,
-                          PrepareOpenDirect prepOpenDirectAt,
-                          PrepareClose prepClose,
-                          PrepareCloseDirect prepCloseDirect,
-                          PrepareRead prepRead,
-                          PrepareReadFixed prepReadFixed,
-                          PrepareWrite prepWrite,
-                          PrepareWriteFixed prepWriteFixed,
                           Submit submitOp,
+                          Enter enterOp,
                           WaitCqe waitCqe,
+                          GetEvents getEvents,
+                          RegisterRingFd registerRingFdOp,
+                          RegisterEventfd registerEventfdOp,
                           PeekCqe peekCqe,
-                          PeekBatchCqe peekBatchCqe,
-                          CqeSeen cqeSeen,
                           QueueInit queueInit,
                           QueueInitParams queueInitParams,
                           QueueExit queueExit,
-                          SqeSetData sqeSetData,
                           RegisterBuffers registerBuffers,
                           RegisterFiles registerFiles,
                           RegisterFilesUpdate registerFilesUpdate,
-                          CqAdvance cqAdvance,
                           WaitCqeNr waitCqeNr,
-                          RegisterIowqMaxWorkers registerIowqMaxWorkers) implements AutoCloseable {
+                          SubmitAndWait submitAndWaitOp,
+                          SubmitAndWaitTimeout submitAndWaitTimeoutOp,
+                          RegisterIowqMaxWorkers registerIowqMaxWorkers,
+                          SetupBufRing setupBufRing,
+                          FreeBufRing freeBufRing) implements AutoCloseable {
 
     private static final AddressLayout C_POINTER = ADDRESS.withTargetLayout(MemoryLayout.sequenceLayout(Long.MAX_VALUE, JAVA_BYTE));
     private static final Linker linker = Linker.nativeLinker();
     private static final SymbolLookup liburing = SymbolLookup.libraryLookup("liburing-ffi.so", Arena.ofAuto());
     private static final LibCDispatcher libCDispatcher = NativeDispatcher.C;
-
-    private static final GroupLayout ring_layout;
+    private static final long RESULT_MASK = 0xFFFF_FFFFL;
+    private static final int EFBIG = 27;
+    // the kernel caps one read at MAX_RW_COUNT, INT_MAX rounded down to a page, this holds for pages up to 64 KiB
+    private static final long MAX_READ_ALL_SIZE = Integer.MAX_VALUE & ~0xFFFFL;
+    private static final long TIMESPEC_SIZE = 16;
+    private static final int IORING_ENTER_SQ_WAKEUP = 1 << 1;
+    private static final int IORING_ENTER_REGISTERED_RING = 1 << 4;
+    private static final byte INT_FLAG_REG_RING = 1;
+    private static final int READ_ALL_STATX = 0;
+    private static final int READ_ALL_OPEN = 1;
+    private static final int READ_ALL_READ = 2;
+    private static final int READ_ALL_CLOSE = 3;
+
+    static final GroupLayout ring_layout;
     private static final GroupLayout io_uring_cq_layout;
     private static final GroupLayout io_uring_sq_layout;
     private static final GroupLayout io_uring_cqe_layout;
@@ -56,6 +73,7 @@ record LibUringDispatcher(Arena arena,
     private static final VarHandle ringFdHandle;
     private static final VarHandle ringFlagHandle;
     private static final VarHandle ringFeaturesandle;
+    private static final VarHandle enterRingFdHandle;
 
 
     static {
@@ -114,52 +132,74 @@ record LibUringDispatcher(Arena arena,
         ringFdHandle = ring_layout.varHandle(MemoryLayout.PathElement.groupElement("ring_fd"));
         ringFlagHandle = ring_layout.varHandle(MemoryLayout.PathElement.groupElement("int_flags"));
         ringFeaturesandle = ring_layout.varHandle(MemoryLayout.PathElement.groupElement("features"));
+        enterRingFdHandle = ring_layout.varHandle(MemoryLayout.PathElement.groupElement("enter_ring_fd"));
     }
 
-    static LibUringDispatcher create(int queueDepth, IoUringOptions... ioUringOptions) {
+    static LibUringDispatcher create(RingConfig config, SubmissionEngine engine) {
         MemorySegment ring = NativeDispatcher.C.malloc(ring_layout.byteSize());
 
-        LibUringDispatcher dispatcher = getDispatcher(ring);
+        LibUringDispatcher dispatcher = getDispatcher(ring, config.requestCapacity(), engine, ownerOf(config.confined()), config.batchPolicy());
 
-        int ret = dispatcher.queueInit(queueDepth, IoUringOptions.combineOptions(ioUringOptions));
+        int ret;
+        try (Arena paramsArena = Arena.ofConfined()) {
+            MemorySegment params = paramsArena.allocate(io_uring_params.layout());
+            config.fill(params);
+            ret = dispatcher.queueInitParams(config.entries(), ring, params);
+        }
      //  dispatcher.registerIowqMaxWorkers(1,1);
         if (ret < 0) {
             throw new RuntimeException("Failed to initialize queue " + libCDispatcher.strerror(ret));
         }
 
+        dispatcher.submissionQueue.map();
+        dispatcher.completionQueue.map();
+        if (config.registersRingFd()) {
+            dispatcher.registerRingFd();
+        }
         return dispatcher;
     }
 
-    private static LibUringDispatcher getDispatcher(MemorySegment ring) {
-        return new LibUringDispatcher(Arena.ofShared(),ring, libCDispatcher.alloc(AddressLayout.ADDRESS.byteSize()), libCDispatcher.alloc(AddressLayout.ADDRESS.byteSize() * 500),
-                libLink(GetSqe.class, "io_uring_get_sqe", FunctionDescriptor.of(ADDRESS, ADDRESS), true),
-                libLink(SetSqeFlag.class, "io_uring_sqe_set_flags", FunctionDescriptor.ofVoid(C_POINTER, JAVA_BYTE), true),
-                libLink(PrepOpenAt.class, "io_uring_prep_openat", FunctionDescriptor.ofVoid(C_POINTER, JAVA_INT, C_POINTER, JAVA_INT, JAVA_INT), false),
-                libLink(PrepareOpenDirect.class, "io_uring_prep_openat_direct", FunctionDescriptor.ofVoid(C_POINTER, JAVA_INT, C_POINTER, JAVA_INT, JAVA_INT, JAVA_INT), false),
-                libLink(PrepareClose.class, "io_uring_prep_close", FunctionDescriptor.ofVoid(C_POINTER, JAVA_INT), false),
-                libLink(PrepareCloseDirect.class, "io_uring_prep_close_direct", FunctionDescriptor.ofVoid(C_POINTER, JAVA_INT), false),
-                libLink(PrepareRead.class, "io_uring_prep_read", FunctionDescriptor.ofVoid(C_POINTER, JAVA_INT, C_POINTER, JAVA_LONG, JAVA_LONG), false),
-                libLink(PrepareReadFixed.class, "io_uring_prep_read_fixed", FunctionDescriptor.ofVoid(C_POINTER, JAVA_INT, C_POINTER, JAVA_LONG, JAVA_LONG, JAVA_INT), false),
-                libLink(PrepareWrite.class, "io_uring_prep_write", FunctionDescriptor.ofVoid(C_POINTER, JAVA_INT, C_POINTER, JAVA_LONG, JAVA_LONG), false),
-                libLink(PrepareWriteFixed.class, "io_uring_prep_write_fixed", FunctionDescriptor.ofVoid(C_POINTER, JAVA_INT, C_POINTER, JAVA_LONG, JAVA_LONG, JAVA_INT), false),
+    private static LibUringDispatcher getDispatcher(MemorySegment ring, int requestCapacity, SubmissionEngine engine, Thread owner, BatchPolicy batchPolicy) {
+        return new LibUringDispatcher(Arena.ofShared(), ring, new RequestSlots(requestCapacity), engine, owner, new SubmissionQueue(ring), new CompletionQueue(ring), new Batcher(batchPolicy), new ConcurrentLinkedQueue<>(), libCDispatcher.alloc(AddressLayout.ADDRESS.byteSize()), libCDispatcher.alloc(TIMESPEC_SIZE),
+                libLink(GetSqe.class, "io_uring_get_sqe", FunctionDescriptor.of(JAVA_LONG, ADDRESS), true),
                 libLink(Submit.class, "io_uring_submit", FunctionDescriptor.of(JAVA_INT, ADDRESS), true),
+                libLink(Enter.class, "io_uring_enter", FunctionDescriptor.of(JAVA_INT, JAVA_INT, JAVA_INT, JAVA_INT, JAVA_INT, ADDRESS), false),
                 libLink(WaitCqe.class, "io_uring_wait_cqe", FunctionDescriptor.of(JAVA_INT, ADDRESS, C_POINTER), false),
+                libLink(GetEvents.class, "io_uring_get_events", FunctionDescriptor.of(JAVA_INT, ADDRESS), false),
+                libLink(RegisterRingFd.class, "io_uring_register_ring_fd", FunctionDescriptor.of(JAVA_INT, ADDRESS), false),
+                libLink(RegisterEventfd.class, "io_uring_register_eventfd", FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT), false),
                 libLink(PeekCqe.class, "io_uring_peek_cqe", FunctionDescriptor.of(JAVA_INT, ADDRESS, C_POINTER), false),
-                libLink(PeekBatchCqe.class, "io_uring_peek_batch_cqe", FunctionDescriptor.of(JAVA_INT, ADDRESS, C_POINTER, JAVA_INT), false),
-                libLink(CqeSeen.class, "io_uring_cqe_seen", FunctionDescriptor.ofVoid(ADDRESS, ADDRESS), true),
                 libLink(QueueInit.class, "io_uring_queue_init", FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS, JAVA_INT), false),
                 libLink(QueueInitParams.class, "io_uring_queue_init_params", FunctionDescriptor.of(JAVA_INT, JAVA_INT, ADDRESS, ADDRESS), false),
                 libLink(QueueExit.class, "io_uring_queue_exit", FunctionDescriptor.ofVoid(ADDRESS), false),
-                libLink(SqeSetData.class, "io_uring_sqe_set_data", FunctionDescriptor.ofVoid(C_POINTER, JAVA_LONG), false),
                 libLink(RegisterBuffers.class, "io_uring_register_buffers", FunctionDescriptor.of(JAVA_INT, ADDRESS, C_POINTER, JAVA_INT), false),
                 libLink(RegisterFiles.class, "io_uring_register_files", FunctionDescriptor.of(JAVA_INT, ADDRESS, C_POINTER, JAVA_INT), false),
                 libLink(RegisterFilesUpdate.class, "io_uring_register_files_update", FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, C_POINTER, JAVA_INT), false),
-                libLink(CqAdvance.class, "io_uring_cq_advance", FunctionDescriptor.ofVoid(ADDRESS, JAVA_INT), true),
                 libLink(WaitCqeNr.class, "io_uring_wait_cqe_nr", FunctionDescriptor.of(JAVA_INT, ADDRESS, C_POINTER, JAVA_INT), false),
-                libLink(RegisterIowqMaxWorkers.class, "io_uring_register_iowq_max_workers", FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS), false)
+                libLink(SubmitAndWait.class, "io_uring_submit_and_wait", FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT), false),
+                libLink(SubmitAndWaitTimeout.class, "io_uring_submit_and_wait_timeout", FunctionDescriptor.of(JAVA_INT, ADDRESS, C_POINTER, JAVA_INT, ADDRESS, ADDRESS), false),
+                libLink(RegisterIowqMaxWorkers.class, "io_uring_register_iowq_max_workers", FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS), false),
+                libLink(SetupBufRing.class, "io_uring_setup_buf_ring", FunctionDescriptor.of(ADDRESS, ADDRESS, JAVA_INT, JAVA_INT, JAVA_INT, ADDRESS), false),
+                libLink(FreeBufRing.class, "io_uring_free_buf_ring", FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, JAVA_INT), false)
         );
     }
 
+    /*
+     A DEFER_TASKRUN ring only runs completion work for the task that created it, the kernel answers submits and
+     waits from any other thread with EEXIST. A registered ring fd only exists in the task that registered it.
+     Both bind the OS thread, which a virtual thread can change.
+     */
+    private static Thread ownerOf(boolean confined) {
+        if (!confined) {
+            return null;
+        }
+        Thread thread = Thread.currentThread();
+        if (thread.isVirtual()) {
+            throw new IllegalStateException("A thread confined ring has to be created on a platform thread");
+        }
+        return thread;
+    }
+
     private static <T> T libLink(Class<T> type, String name, FunctionDescriptor descriptor, boolean critical) {
         MemorySegment symbol = liburing.findOrThrow(name);
         MethodHandle handle = linker.downcallHandle(symbol, descriptor, Linker.Option.critical(critical));
@@ -178,13 +218,13 @@ record LibUringDispatcher(Arena arena,
      */
     public LibUringDispatcher getSharedWorkerRing(int queueDepth, IoUringOptions... ioUringOptions){
         MemorySegment ring = NativeDispatcher.C.malloc(ring_layout.byteSize());
-        LibUringDispatcher dispatcher = getDispatcher(ring);
+        // the completion queue is twice the size of the submission queue, so that is what can be in flight
+        var result = IoUringOptions.combineOptions(ioUringOptions);
+        LibUringDispatcher dispatcher = getDispatcher(ring, queueDepth * 2, engine, ownerOf((result & IoUringOptions.IORING_SETUP_DEFER_TASKRUN.value) != 0), BatchPolicy.whenFull());
         MemorySegment params = NativeDispatcher.C.calloc(io_uring_params.layout().byteSize());
 
         int ring_fd = (int) ringFdHandle.get(this.ring, 0L); // this. is the parent (ring)
 
-        var result = IoUringOptions.combineOptions(ioUringOptions);
-
         io_uring_params.flags(params, result | IORING_SETUP_ATTACH_WQ.value);
         io_uring_params.wq_fd(params, ring_fd);
 
@@ -194,54 +234,437 @@ record LibUringDispatcher(Arena arena,
             throw new RuntimeException("ret = " + ret + " " + NativeDispatcher.C.strerror(ret));
         }
 
+        dispatcher.submissionQueue.map();
+        dispatcher.completionQueue.map();
         return dispatcher;
     }
 
-    MemorySegment getSqe() {
-        return sqe.getSqe(ring);
+    int ringFd() {
+        return (int) ringFdHandle.get(ring, 0L);
+    }
+
+    /**
+     * The fd the ring is entered with, the registered index once {@link #registerRingFd()} succeeded.
+     */
+    int enterRingFd() {
+        return (int) enterRingFdHandle.get(ring, 0L);
+    }
+
+    /**
+     * Lets liburing enter the ring through the registered index of its fd instead of the fd itself.
+     */
+    private void registerRingFd() {
+        int ret = registerRingFdOp.registerRingFd(ring);
+        if (ret < 0) {
+            throw new RuntimeException("Failed to register ring fd: " + libCDispatcher.strerror(ret));
+        }
+    }
+
+    /**
+     * Lets the kernel signal {@code eventFd} for every completion it posts.
+     */
+    void registerEventfd(int eventFd) {
+        int ret = registerEventfdOp.registerEventfd(ring, eventFd);
+        if (ret < 0) {
+            throw new RuntimeException("Failed to register eventfd: " + libCDispatcher.strerror(ret));
+        }
+    }
+
+    boolean ringFdRegistered() {
+        return ((byte) ringFlagHandle.get(ring, 0L) & INT_FLAG_REG_RING) != 0;
+    }
+
+    /**
+     * The {@code IORING_FEAT_*} bits the kernel reported when the ring was set up.
+     */
+    int features() {
+        return (int) ringFeaturesandle.get(ring, 0L);
+    }
+
+    void prepareOpenAt(MemorySegment filePath, int flags, int mode, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        Sqe.prepareOpenAt(sqes(), sqe, AT_FDCWD.value, filePath, flags, mode);
+        completeSqe(sqe, sqeFlags, userData);
+    }
+
+    void prepareOpenDirectAt(MemorySegment filePath, int flags, int mode, int fileIndex, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        Sqe.prepareOpenDirectAt(sqes(), sqe, AT_FDCWD.value, filePath, flags, mode, fileIndex);
+        completeSqe(sqe, sqeFlags, userData);
+    }
+
+    void prepareClose(int fd, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        Sqe.prepareClose(sqes(), sqe, fd);
+        completeSqe(sqe, sqeFlags, userData);
+    }
+
+    void prepareCloseDirect(int fileIndex, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        Sqe.prepareCloseDirect(sqes(), sqe, fileIndex);
+        completeSqe(sqe, sqeFlags, userData);
+    }
+
+    void prepareRead(int fd, MemorySegment buffer, long offset, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        Sqe.prepareRw(sqes(), sqe, Opcode.READ, fd, buffer.address(), (int) buffer.byteSize(), offset);
+        completeSqe(sqe, sqeFlags, userData);
+    }
+
+    void prepareReadSelect(int fd, int length, long offset, int groupId, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        Sqe.prepareRw(sqes(), sqe, Opcode.READ, fd, 0L, length, offset);
+        Sqe.setBufferGroup(sqes(), sqe, groupId);
+        completeSqe(sqe, (byte) (sqeFlags | SqeOptions.IOSQE_BUFFER_SELECT.value), userData);
+    }
+
+    /**
+     * Prepares a readv or writev, the fixed opcodes resolve the iovecs against the registered buffer at
+     * {@code bufferIndex}.
+     */
+    void prepareVectored(Opcode opcode, int fd, MemorySegment iovecs, int nrVecs, long offset, int rwFlags, int bufferIndex, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        if (opcode == Opcode.READV_FIXED || opcode == Opcode.WRITEV_FIXED) {
+            Sqe.prepareVectoredFixed(sqes(), sqe, opcode, fd, iovecs, nrVecs, offset, rwFlags, bufferIndex);
+        } else {
+            Sqe.prepareVectored(sqes(), sqe, opcode, fd, iovecs, nrVecs, offset, rwFlags);
+        }
+        completeSqe(sqe, sqeFlags, userData);
+    }
+
+    void prepareFsync(int fd, int fsyncFlags, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        Sqe.prepareFsync(sqes(), sqe, fd, fsyncFlags);
+        completeSqe(sqe, sqeFlags, userData);
+    }
+
+    void prepareSyncFileRange(int fd, int length, long offset, int flags, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        Sqe.prepareSyncFileRange(sqes(), sqe, fd, length, offset, flags);
+        completeSqe(sqe, sqeFlags, userData);
+    }
+
+    void prepareStatx(int dfd, MemorySegment path, int flags, MemorySegment statx, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        Sqe.prepareStatx(sqes(), sqe, dfd, path, flags, StatxResult.STATX_BASIC_STATS, statx);
+        completeSqe(sqe, sqeFlags, userData);
+    }
+
+    /**
+     * Prepares the first half of reading a whole file, a statx linked to an open into the registered file table.
+     * {@code statx} holds the statx buffer followed by the path. Once the size is known the read and close are
+     * prepared by the thread that submits, see {@link #prepareReadAllFollowUps()}.
+     */
+    void prepareReadAll(MemorySegment statx, int fileIndex, long id) {
+        MemorySegment path = statx.asSlice(StatxResult.SIZE);
+        requestSlots.state(requestSlots.slotOf(id), (long) fileIndex << 32);
+        prepareStatx(AT_FDCWD.value, path, 0, statx, SqeOptions.IOSQE_IO_LINK.value, RequestSlots.withStep(id, READ_ALL_STATX));
+        prepareOpenDirectAt(path, LinuxOpenOptions.READ.getValue(), 0, fileIndex, (byte) 0, RequestSlots.withStep(id, READ_ALL_OPEN));
+    }
+
+    void prepareSplice(int fdIn, long offIn, int fdOut, long offOut, int length, int spliceFlags, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        Sqe.prepareSplice(sqes(), sqe, fdIn, offIn, fdOut, offOut, length, spliceFlags);
+        completeSqe(sqe, sqeFlags, userData);
+    }
+
+    void prepareCancel(long userData, int fd, int cancelFlags, byte sqeFlags, long id) {
+        long sqe = takeSqe();
+        Sqe.prepareCancel(sqes(), sqe, userData, fd, cancelFlags);
+        completeSqe(sqe, sqeFlags, id);
     }
 
-    void setSqeFlag(MemorySegment sqe, SqeOptions... flags) {
-        setSqeFlag.setSqeFlag(sqe, SqeOptions.combineOptions(flags));
+    void prepareTimeout(long id, Duration timeout, int count, byte sqeFlags) {
+        long sqe = takeSqe();
+        Sqe.prepareTimeout(sqes(), sqe, Opcode.TIMEOUT, timespec(id, timeout), count, 0);
+        completeSqe(sqe, sqeFlags, id);
     }
 
-    void prepareOpenAt(MemorySegment sqe, MemorySegment filePath, int flags, int mode) {
-        prepOpenAt.prepareOpenAt(sqe, AT_FDCWD.value, filePath, flags, mode);
+    /**
+     * Links the entry that was prepared last to a timeout, the timeout cancels it when it did not complete in time.
+     */
+    void prepareLinkTimeout(long id, Duration timeout) {
+        long target = submissionQueue.lastPrepared();
+        if (target < 0) {
+            throw new IllegalStateException("There is no prepared operation to attach a timeout to");
+        }
+        if (submissionQueue.space() < 1) {
+            throw new IllegalStateException("Submission queue is full, the timeout cannot be linked");
+        }
+
+        // the target is only linked once the timeout has its entry, a failed take leaves nothing dangling
+        long sqe = takeSqe();
+        Sqe.addFlags(sqes(), target, SqeOptions.IOSQE_IO_LINK.value);
+        Sqe.prepareTimeout(sqes(), sqe, Opcode.LINK_TIMEOUT, timespec(id, timeout), 0, 0);
+        completeSqe(sqe, (byte) 0, id);
+        submissionQueue.lastPrepared(-1);
+    }
+
+    private MemorySegment timespec(long id, Duration timeout) {
+        MemorySegment timespec = requestSlots.timespec(requestSlots.slotOf(id));
+        timespec.set(JAVA_LONG, 0, timeout.getSeconds());
+        timespec.set(JAVA_LONG, 8, timeout.getNano());
+        return timespec;
+    }
+
+    void prepareFallocate(int fd, int mode, long offset, long length, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        Sqe.prepareFallocate(sqes(), sqe, fd, mode, offset, length);
+        completeSqe(sqe, sqeFlags, userData);
     }
 
-    void prepareOpenDirectAt(MemorySegment sqe, MemorySegment filePath, int flags, int mode, int fileIndex) {
-        prepOpenDirectAt.prepareOpenDirectAt(sqe, AT_FDCWD.value, filePath, flags, mode, fileIndex);
+    void prepareFtruncate(int fd, long length, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        Sqe.prepareFtruncate(sqes(), sqe, fd, length);
+        completeSqe(sqe, sqeFlags, userData);
     }
 
-    void prepareClose(MemorySegment sqe, int fd) {
-        prepClose.prepareClose(sqe, fd);
+    void prepareReadFixed(int fd, MemorySegment buffer, int length, long offset, int bufferIndex, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        Sqe.prepareFixed(sqes(), sqe, Opcode.READ_FIXED, fd, buffer, length, offset, bufferIndex);
+        completeSqe(sqe, sqeFlags, userData);
+    }
+
+    void prepareWrite(int fd, MemorySegment buffer, long offset, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        Sqe.prepareRw(sqes(), sqe, Opcode.WRITE, fd, buffer.address(), (int) buffer.byteSize(), offset);
+        completeSqe(sqe, sqeFlags, userData);
+    }
+
+    void prepareWriteFixed(int fd, MemorySegment buffer, int length, long offset, int bufferIndex, byte sqeFlags, long userData) {
+        long sqe = takeSqe();
+        Sqe.prepareFixed(sqes(), sqe, Opcode.WRITE_FIXED, fd, buffer, length, offset, bufferIndex);
+        completeSqe(sqe, sqeFlags, userData);
+    }
+
+    private long getSqe() {
+        long sqe = this.sqe.getSqe(ring);
+        if (sqe == 0) {
+            reserve(1);
+            sqe = this.sqe.getSqe(ring);
+        }
+        return sqe;
     }
 
-    void prepareCloseDirect(MemorySegment sqe, int fileIndex) {
-        prepCloseDirect.prepareCloseDirect(sqe, fileIndex);
+    private long nextSqe() {
+        long sqe = submissionQueue.next();
+        if (sqe < 0) {
+            reserve(1);
+            sqe = submissionQueue.next();
+        }
+        return sqe;
     }
 
-    void prepareRead(MemorySegment sqe, int fd, MemorySegment buffer, long offset) {
-        prepRead.prepareRead(sqe, fd, buffer, buffer.byteSize(), offset);
+    /**
+     * Makes room for {@code count} entries that have to be submitted together, like the steps of a chain, by
+     * submitting the queue when they do not fit. Entries linked to the next one cannot be submitted without it.
+     */
+    void reserve(int count) {
+        if (submissionQueue.space() >= count) {
+            return;
+        }
+        if (count > submissionQueue.capacity()) {
+            throw new IllegalStateException("Submission queue has room for at most " + submissionQueue.capacity() + " of the " + count + " operations");
+        }
+        if (linkOpen()) {
+            throw new IllegalStateException("Submission queue is full in the middle of linked operations");
+        }
+
+        flush(Batcher.Reason.FULL);
+        // the kernel thread of an SQPOLL ring consumes the entries after the submit returned
+        while (submissionQueue.space() < count) {
+            if (!submissionQueue.polled()) {
+                throw new IllegalStateException("Submission queue is full");
+            }
+            Thread.onSpinWait();
+        }
     }
 
-    void prepareReadFixed(MemorySegment sqe, int fd, MemorySegment buffer, long offset, int bufferIndex) {
-        prepReadFixed.prepareReadFixed(sqe, fd, buffer, buffer.byteSize(), offset, bufferIndex);
+    private boolean linkOpen() {
+        long last = submissionQueue.lastPrepared();
+        return last >= 0 && Sqe.isLinked(sqes(), last);
     }
 
-    void prepareWrite(MemorySegment sqe, int fd, MemorySegment buffer, long offset) {
-        prepWrite.prepareWrite(sqe, fd, buffer, buffer.byteSize(), offset);
+    /**
+     * Submits the waiting requests when the batch policy says so, or all of them before blocking for results.
+     */
+    private void flushIfDue(boolean waiting) {
+        if (submissionQueue.unsubmitted() == 0 || linkOpen()) {
+            return;
+        }
+        Batcher.Reason reason = batcher.due();
+        if (reason == null && waiting) {
+            reason = Batcher.Reason.WAIT;
+        }
+        if (reason != null) {
+            flush(reason);
+        }
     }
 
-    void prepareWriteFixed(MemorySegment sqe, int fd, MemorySegment buffer, long nbytes, long offset, int bufferIndex) {
-        prepWriteFixed.prepareWriteFixed(sqe, fd, buffer, nbytes, offset, bufferIndex);
+    /**
+     * Takes an sqe with the engine of the ring, every operation is then written from Java. liburing hands out entries
+     * of the same sqes array, so its pointer is turned into an offset.
+     */
+    private long takeSqe() {
+        if (engine == SubmissionEngine.JAVA) {
+            return nextSqe();
+        }
+        return getSqe() - sqes().address();
+    }
+
+    private MemorySegment sqes() {
+        return submissionQueue.sqes();
+    }
+
+    // the Sqe writers reset the sqe flags, so they can only be set once the sqe is prepared
+    private void completeSqe(long sqe, byte sqeFlags, long userData) {
+        Sqe.setFlags(sqes(), sqe, sqeFlags);
+        Sqe.setUserData(sqes(), sqe, userData);
+        submissionQueue.lastPrepared(sqe);
     }
 
     void submit() {
+        flush(Batcher.Reason.EXPLICIT);
+    }
+
+    /**
+     * Whether a read all waits for its read and close to be submitted.
+     */
+    boolean readAllPending() {
+        return !readAllFollowUps.isEmpty();
+    }
+
+    /*
+     The open of a read all completes while reaping, which can happen on another thread than the one that submits.
+     The read and close are queued there and prepared here, right before a submit, so only the submitting thread
+     touches the submission queue and they go out with the requests that are already waiting.
+     */
+    private void prepareReadAllFollowUps() {
+        Long userData;
+        while (!linkOpen() && submissionQueue.space() >= 2 && (userData = readAllFollowUps.poll()) != null) {
+            int slot = requestSlots.slotOf(userData);
+            long state = requestSlots.state(slot);
+            int index = (int) (state >>> 32);
+            int size = (int) state;
+            long id = RequestSlots.idOf(userData);
+
+            if (size >= 0) {
+                MemorySegment buffer = libCDispatcher.malloc(Math.max(size, 1)).asSlice(0, size);
+                requestSlots.buffer(slot, buffer);
+                prepareRead(index, buffer, 0, (byte) (SqeOptions.IOSQE_FIXED_FILE.value | SqeOptions.IOSQE_IO_HARDLINK.value),
+                        RequestSlots.withStep(id, READ_ALL_READ));
+            }
+            prepareCloseDirect(index, (byte) 0, RequestSlots.withStep(id, READ_ALL_CLOSE));
+        }
+    }
+
+    private void flush(Batcher.Reason reason) {
+        checkOwner();
+        prepareReadAllFollowUps();
+        submissionQueue.lastPrepared(-1);
+        batcher.flushed(reason);
+        if (submissionQueue.polled()) {
+            submitPolled();
+            return;
+        }
+
         int ret = submitOp.submit(ring);
         if (ret < 0) {
             throw new RuntimeException("Failed to submit queue: " + libCDispatcher.strerror(ret));
         }
+        // liburing only enters the kernel when there is something to submit
+        submissionQueue.countSubmit(ret > 0);
+    }
+
+    /**
+     * The kernel thread of an SQPOLL ring picks up published entries by itself, so the ring is only entered to
+     * wake the thread up when it went idle.
+     */
+    private void submitPolled() {
+        int pending = submissionQueue.flush();
+        boolean wakeup = pending > 0 && submissionQueue.needsWakeup();
+        if (wakeup) {
+            int flags = ringFdRegistered() ? IORING_ENTER_SQ_WAKEUP | IORING_ENTER_REGISTERED_RING : IORING_ENTER_SQ_WAKEUP;
+            int ret = enterOp.enter(enterRingFd(), pending, 0, flags, MemorySegment.NULL);
+            if (ret < 0) {
+                throw new RuntimeException("Failed to wake up the submission thread: " + libCDispatcher.strerror(ret));
+            }
+        }
+        submissionQueue.countSubmit(wakeup);
+    }
+
+    /**
+     * Submits and waits for {@code minComplete} completions in one enter, and returns the results that are ready.
+     */
+    List<Result> submitAndWait(int minComplete) {
+        checkOwner();
+        prepareReadAllFollowUps();
+        submissionQueue.lastPrepared(-1);
+        batcher.flushed(Batcher.Reason.EXPLICIT);
+        int ret = submitAndWaitOp.submitAndWait(ring, minComplete);
+        if (ret < 0) {
+            throw new RuntimeException("Failed to submit and wait: " + libCDispatcher.strerror(ret));
+        }
+        submissionQueue.countSubmit(ret > 0 || minComplete > 0);
+
+        List<Result> results = reapCompletions(readyCompletions());
+        // the steps of a chain and link timeouts count for the kernel but are not results, wait for the rest
+        while (results.size() < minComplete) {
+            results.addAll(waitForBatchResult(minComplete - results.size()));
+        }
+        return results;
+    }
+
+    /**
+     * Submits and waits up to {@code timeout} for {@code minComplete} completions in one enter, then hands every
+     * completion that is ready to the handler.
+     */
+    int submitAndReap(CompletionHandler handler, int minComplete, Duration timeout) {
+        checkOwner();
+        // without EXT_ARG liburing waits with a timeout sqe of its own, whose completion is not a request
+        if ((features() & RingFeature.IORING_FEAT_EXT_ARG.value) == 0) {
+            throw new IllegalStateException("Waiting with a timeout needs IORING_FEAT_EXT_ARG");
+        }
+        prepareReadAllFollowUps();
+        submissionQueue.lastPrepared(-1);
+        batcher.flushed(Batcher.Reason.EXPLICIT);
+        waitTimeout.set(JAVA_LONG, 0, timeout.getSeconds());
+        waitTimeout.set(JAVA_LONG, 8, timeout.getNano());
+
+        int ret = submitAndWaitTimeoutOp.submitAndWaitTimeout(ring, cqePtr, minComplete, waitTimeout, MemorySegment.NULL);
+        if (ret < 0 && ret != -TimeoutResult.ETIME) {
+            throw new RuntimeException("Failed to submit and wait: " + libCDispatcher.strerror(ret));
+        }
+        submissionQueue.countSubmit(true);
+        return reapCompletions(handler, Integer.MAX_VALUE);
+    }
+
+    FlushStats flushStats() {
+        return batcher.stats();
+    }
+
+    SubmitStats submitStats() {
+        return submissionQueue.stats();
+    }
+
+    /**
+     * Runs the completion work the kernel deferred and flushes overflowed completions, without waiting.
+     *
+     * @return the number of completions that are ready
+     */
+    int processEvents() {
+        checkOwner();
+        int ret = getEvents.getEvents(ring);
+        if (ret < 0) {
+            throw new RuntimeException("Failed to process events: " + libCDispatcher.strerror(ret));
+        }
+        return completionQueue.tail() - completionQueue.head();
+    }
+
+    private void checkOwner() {
+        if (owner != null && owner != Thread.currentThread()) {
+            throw new IllegalStateException("Ring is confined to " + owner + " and cannot be used from " + Thread.currentThread());
+        }
     }
 
     int waitCqe(MemorySegment ring, MemorySegment cqePtr) {
@@ -252,10 +675,6 @@ record LibUringDispatcher(Arena arena,
         return peekCqe.peekCqe(ring, cqePtr);
     }
 
-    int peekBatchCqe(MemorySegment ring, MemorySegment cqePtrPtr, int batchSize) {
-        return peekBatchCqe.peekBatchCqe(ring, cqePtrPtr, batchSize);
-    }
-
     int queueInit(int queueDepth, int flags) {
         return queueInit.queueInit(queueDepth, this.ring , flags);
     }
@@ -280,10 +699,6 @@ record LibUringDispatcher(Arena arena,
         queueExit.queueExit(ring);
     }
 
-    void setUserData(MemorySegment sqe, long userData) {
-        sqeSetData.sqeSetData(sqe, userData);
-    }
-
     int registerBuffers(MemorySegment ring, MemorySegment iovecs, int nrIovecs) {
         return registerBuffers.registerBuffers(ring, iovecs, nrIovecs);
     }
@@ -297,102 +712,412 @@ record LibUringDispatcher(Arena arena,
     }
 
     List<Result> peekForBatchResult(int batchSize) {
-        int count = peekBatchCqe(ring, cqePtrPtr, batchSize);
-
-        if (count > 0) {
-            List<Result> ret = new ArrayList<>(count);
-
-            for (int i = 0; i < count; i++) {
-                var nativeCqe = cqePtrPtr.getAtIndex(ADDRESS, i).reinterpret(io_uring_cqe_layout.byteSize());
-
-                long userData = nativeCqe.get(JAVA_LONG, 0);
-                int res = nativeCqe.get(JAVA_INT, 8);
-
-                ret.add(getResultFromCqe(userData, res));
-            }
-
-            cqAdvance.peekBatchCqe(ring, count);
-            return ret;
+        int ready = readyCompletions();
+        if (ready == 0) {
+            return List.of();
         }
-        return List.of();
+        return reapCompletions(Math.min(ready, batchSize));
     }
 
     List<Result> waitForBatchResult(int batchSize) {
-        int status = waitCqeNr.waitForCqeNr(ring, cqePtrPtr, batchSize);
+        checkOwner();
+        flushIfDue(true);
+        if (readAllPending()) {
+            flush(Batcher.Reason.WAIT);
+        }
+        int status = waitCqeNr.waitForCqeNr(ring, cqePtr, batchSize);
         if (status < 0) {
-            status = waitCqeNr.waitForCqeNr(ring, cqePtrPtr, batchSize);
+            status = waitCqeNr.waitForCqeNr(ring, cqePtr, batchSize);
             if (status < 0) {
-                status = waitCqeNr.waitForCqeNr(ring, cqePtrPtr, batchSize);
+                status = waitCqeNr.waitForCqeNr(ring, cqePtr, batchSize);
                 if (status < 0) {
                     throw new RuntimeException("Error while waiting for cqe: " + libCDispatcher.strerror(status));
                 }
             }
         }
-        int count = peekBatchCqe(ring, cqePtrPtr, batchSize);
 
-        List<Result> ret = new ArrayList<>(count);
+        return reapCompletions(Math.min(readyCompletions(), batchSize));
+    }
 
-        for (int i = 0; i < count; i++) {
-            var nativeCqe = cqePtrPtr.getAtIndex(ADDRESS, i).reinterpret(io_uring_cqe_layout.byteSize());
+    Result waitForResult() {
+        checkOwner();
+        flushIfDue(true);
+        Result result = null;
+        while (result == null) {
+            // chain steps and link timeouts are absorbed, once the ring is empty block in the kernel instead of
+            // polling it again, waiting also posts the completions readyCompletions would have flushed
+            if (completionQueue.tail() == completionQueue.head()) {
+                if (readAllPending()) {
+                    flush(Batcher.Reason.WAIT);
+                }
+                int ret = waitCqe(ring, cqePtr);
+                if (ret < 0) {
+                    throw new RuntimeException("Error while waiting for cqe: " + libCDispatcher.strerror(ret));
+                }
+            }
 
-            long userData = nativeCqe.get(JAVA_LONG, 0);
-            int res = nativeCqe.get(JAVA_INT, 8);
+            int head = completionQueue.head();
+            long cqe = completionQueue.cqe(head);
+            MemorySegment cqes = completionQueue.cqes();
 
-            ret.add(getResultFromCqe(userData, res));
+            try {
+                result = getResultFromCqe(cqes.get(JAVA_LONG, cqe + CompletionQueue.USER_DATA), cqes.get(JAVA_INT, cqe + CompletionQueue.RES), cqes.get(JAVA_INT, cqe + CompletionQueue.FLAGS));
+            } finally {
+                completionQueue.advance(head + 1);
+            }
         }
+        return result;
+    }
 
-        cqAdvance.peekBatchCqe(ring, count);
+    /**
+     * Number of completions that can be reaped without waiting. Completions the kernel only posts once it is
+     * entered (overflow, deferred task work) are flushed when nothing else is ready.
+     */
+    private int readyCompletions() {
+        checkOwner();
+        int ready = completionQueue.tail() - completionQueue.head();
+        if (ready == 0 && completionQueue.needsFlush()) {
+            ready = processEvents();
+        }
+        return ready;
+    }
+
+    private List<Result> reapCompletions(int count) {
+        List<Result> ret = new ArrayList<>(count);
+        MemorySegment cqes = completionQueue.cqes();
+        int head = completionQueue.head();
+        int end = head + count;
+
+        try {
+            while (head != end) {
+                long cqe = completionQueue.cqe(head++);
+                Result result = getResultFromCqe(cqes.get(JAVA_LONG, cqe + CompletionQueue.USER_DATA), cqes.get(JAVA_INT, cqe + CompletionQueue.RES), cqes.get(JAVA_INT, cqe + CompletionQueue.FLAGS));
+                if (result != null) {
+                    ret.add(result);
+                }
+            }
+        } finally {
+            completionQueue.advance(head);
+        }
         return ret;
     }
 
-    Result waitForResult() {
-        int ret = waitCqe(ring, cqePtr);
-        if (ret < 0) {
-            throw new RuntimeException("Error while waiting for cqe: " + libCDispatcher.strerror(ret));
+    int reapCompletions(CompletionHandler handler, int max) {
+        int count = Math.min(readyCompletions(), max);
+        int handled = 0;
+        MemorySegment cqes = completionQueue.cqes();
+        int head = completionQueue.head();
+        int end = head + count;
+
+        try {
+            while (head != end) {
+                long cqe = completionQueue.cqe(head++);
+                long userData = cqes.get(JAVA_LONG, cqe + CompletionQueue.USER_DATA);
+                int result = cqes.get(JAVA_INT, cqe + CompletionQueue.RES);
+                int slot = requestSlots.slotOf(userData);
+
+                OperationType type = requestSlots.type(slot);
+
+                if (type == OperationType.LINK_TIMEOUT) {
+                    requestSlots.release(slot);
+                    continue;
+                }
+                if (type == OperationType.CHAIN) {
+                    if (!completeChainStep(slot, userData, result)) {
+                        continue;
+                    }
+                    result = Chain.result(requestSlots.state(slot));
+                } else if (type == OperationType.READ_ALL) {
+                    if (!completeReadAllStep(slot, userData, result)) {
+                        continue;
+                    }
+                    result = (int) requestSlots.state(slot);
+                }
+
+                try {
+                    handler.onCompletion(RequestSlots.idOf(userData), result, cqes.get(JAVA_INT, cqe + CompletionQueue.FLAGS));
+                    handled++;
+                } finally {
+                    releaseRequest(slot);
+                }
+            }
+        } finally {
+            completionQueue.advance(head);
         }
+        return handled;
+    }
 
-        var nativeCqe = cqePtr.getAtIndex(ADDRESS, 0).reinterpret(io_uring_cqe_layout.byteSize());
+    /**
+     * Folds the completion of a step into the state of its chain, returns true once the last step completed.
+     */
+    private boolean completeChainStep(int slot, long userData, int result) {
+        int step = RequestSlots.stepOf(userData);
+        long state = Chain.complete(requestSlots.state(slot), step, result);
+        requestSlots.state(slot, state);
+        return Chain.isLastStep(state, step);
+    }
 
-        long userData = nativeCqe.get(JAVA_LONG, 0);
-        int res = nativeCqe.get(JAVA_INT, 8);
+    /*
+     The state of a read all keeps the file index in the upper 32 bits, and the size of the file or the result of
+     the step that failed or read in the lower 32 bits.
+     */
+    private boolean completeReadAllStep(int slot, long userData, int result) {
+        long state = requestSlots.state(slot);
+        long fileIndex = state & ~RESULT_MASK;
+        int value = (int) state;
+
+        switch (RequestSlots.stepOf(userData)) {
+            case READ_ALL_STATX -> {
+                long size = StatxResult.size(requestSlots.buffer(slot));
+                value = result < 0 ? result : size > MAX_READ_ALL_SIZE ? -EFBIG : (int) size;
+                requestSlots.state(slot, fileIndex | (value & RESULT_MASK));
+                return false;
+            }
+            case READ_ALL_OPEN -> {
+                libCDispatcher.free(requestSlots.buffer(slot));
+                requestSlots.buffer(slot, MemorySegment.NULL);
+                if (result < 0) {
+                    requestSlots.state(slot, fileIndex | ((value < 0 ? value : result) & RESULT_MASK));
+                    return true;
+                }
 
-        Result result = getResultFromCqe(userData, res);
-        cqeSeen.cqeSeen(ring, nativeCqe);
-        return result;
+                readAllFollowUps.add(userData);
+                return false;
+            }
+            case READ_ALL_READ -> {
+                requestSlots.state(slot, fileIndex | (result & RESULT_MASK));
+                return false;
+            }
+            default -> {
+                return true;
+            }
+        }
+    }
+
+    void initChain(long id, long state) {
+        requestSlots.state(requestSlots.slotOf(id), state);
+    }
+
+    int submissionQueueSpace() {
+        return submissionQueue.space();
+    }
+
+    int reapCompletions(CompletionBatch batch) {
+        int count = Math.min(readyCompletions(), batch.remaining());
+        MemorySegment cqes = completionQueue.cqes();
+        int head = completionQueue.head();
+        int end = head + count;
+
+        int added = 0;
+        try {
+            while (head != end) {
+                long cqe = completionQueue.cqe(head++);
+                long userData = cqes.get(JAVA_LONG, cqe + CompletionQueue.USER_DATA);
+                int result = cqes.get(JAVA_INT, cqe + CompletionQueue.RES);
+                int flags = cqes.get(JAVA_INT, cqe + CompletionQueue.FLAGS);
+                int slot = requestSlots.slotOf(userData);
+                OperationType type = requestSlots.type(slot);
+
+                if (type == OperationType.LINK_TIMEOUT) {
+                    requestSlots.release(slot);
+                    continue;
+                }
+                if (type == OperationType.CHAIN) {
+                    if (!completeChainStep(slot, userData, result)) {
+                        continue;
+                    }
+                    result = Chain.result(requestSlots.state(slot));
+                } else if (type == OperationType.READ_ALL) {
+                    if (!completeReadAllStep(slot, userData, result)) {
+                        continue;
+                    }
+                    result = (int) requestSlots.state(slot);
+                }
+                MemorySegment buffer = requestSlots.buffer(slot);
+                BufferOwner owner = requestSlots.owner(slot);
+                requestSlots.release(slot);
+
+                if (ownsRequestMemory(type)) {
+                    libCDispatcher.free(buffer);
+                    buffer = MemorySegment.NULL;
+                } else if (type == OperationType.READ_SELECT) {
+                    buffer = selectedBuffer(owner, result, flags);
+                }
+                batch.add(RequestSlots.idOf(userData), result, flags, type, buffer, owner);
+                added++;
+            }
+        } finally {
+            completionQueue.advance(head);
+        }
+        return added;
+    }
+
+    /**
+     * Buffer of an operation that has not been released yet.
+     */
+    MemorySegment requestBuffer(long userData) {
+        return requestSlots.buffer(requestSlots.slotOf(userData));
+    }
+
+    /**
+     * Releases a request that never made it into the submission queue.
+     */
+    void discardRequest(long id) {
+        releaseRequest(requestSlots.slotOf(id));
+    }
+
+    /**
+     * Releases the slot of a request that completed without handing its buffer to the caller, so buffers
+     * allocated by JUring are freed here.
+     */
+    private void releaseRequest(int slot) {
+        OperationType type = requestSlots.type(slot);
+        MemorySegment buffer = requestSlots.buffer(slot);
+        BufferOwner owner = requestSlots.owner(slot);
+        requestSlots.release(slot);
+
+        if ((type == OperationType.READ && owner == BufferOwner.MALLOC) || type == OperationType.READ_ALL || ownsRequestMemory(type)) {
+            libCDispatcher.free(buffer);
+        }
+    }
+
+    /**
+     * Whether the memory of a request, like a copied path or iovec array, is never handed to the caller.
+     */
+    private static boolean ownsRequestMemory(OperationType type) {
+        return type == OperationType.WRITE || type == OperationType.OPEN
+                || type == OperationType.READV || type == OperationType.WRITEV || type == OperationType.CHAIN || type == OperationType.STATX;
     }
 
-    private Result getResultFromCqe(long address, long result) {
-        MemorySegment nativeUserData = MemorySegment.ofAddress(address).reinterpret(UserData.getByteSize());
+    long newRequest(OperationType type, MemorySegment buffer) {
+        return newRequest(type, buffer, type == OperationType.READ ? BufferOwner.MALLOC : BufferOwner.CALLER);
+    }
+
+    long newRequest(OperationType type, MemorySegment buffer, BufferOwner owner) {
+        checkOwner();
+        // a link timeout belongs to the request before it, so it cannot start a new batch
+        if (type != OperationType.LINK_TIMEOUT) {
+            flushIfDue(false);
+            // room is made before the slot is taken, so a full queue cannot leave the slot without its entries
+            reserve(type == OperationType.READ_ALL ? 2 : 1);
+            batcher.requestStarted();
+        }
+        return requestSlots.acquire(type, buffer, owner);
+    }
 
-        OperationType type = UserData.getType(nativeUserData);
-        long id = UserData.getId(nativeUserData);
+    /**
+     * The part of the buffer ring entry a buffer select read completed into.
+     */
+    private static MemorySegment selectedBuffer(BufferOwner owner, int result, int flags) {
+        if ((flags & PooledReadResult.IORING_CQE_F_BUFFER) == 0) {
+            return MemorySegment.NULL;
+        }
+        BufferRing bufferRing = (BufferRing) owner;
+        return bufferRing.buffer(flags >>> PooledReadResult.IORING_CQE_BUFFER_SHIFT).asSlice(0, Math.max(result, 0));
+    }
 
+    /**
+     * Builds the result of a completion and releases its request, returns null for completions of a chain that
+     * is still running.
+     */
+    private Result getResultFromCqe(long userData, long result, int flags) {
+        int slot = requestSlots.slotOf(userData);
+        OperationType type = requestSlots.type(slot);
+
+        // the completion of a link timeout adds nothing to the result of the operation it guards
+        if (OperationType.LINK_TIMEOUT.equals(type)) {
+            requestSlots.release(slot);
+            return null;
+        }
+
+        if (OperationType.CHAIN.equals(type)) {
+            if (!completeChainStep(slot, userData, (int) result)) {
+                return null;
+            }
+            long state = requestSlots.state(slot);
+            releaseRequest(slot);
+            return new ChainResult(RequestSlots.idOf(userData), Chain.failedStep(state), Chain.result(state));
+        }
+
+        if (OperationType.READ_ALL.equals(type)) {
+            if (!completeReadAllStep(slot, userData, (int) result)) {
+                return null;
+            }
+            result = (int) requestSlots.state(slot);
+            userData = RequestSlots.idOf(userData);
+        }
 
-        if (OperationType.READ.equals(type)) {
-            return new ReadResult(id, UserData.getBuffer(nativeUserData), result);
+        MemorySegment buffer = requestSlots.buffer(slot);
+        BufferOwner owner = requestSlots.owner(slot);
+        requestSlots.release(slot);
+
+        if (OperationType.READ.equals(type) || OperationType.READ_FIXED.equals(type) || OperationType.READ_ALL.equals(type)) {
+            // a buffer leased from a pool goes back to it when the result is freed
+            if (owner != BufferOwner.MALLOC && owner != BufferOwner.CALLER) {
+                return new PooledReadResult(userData, buffer, result, flags, owner);
+            }
+            return new ReadResult(userData, buffer, result);
+        } else if (OperationType.READ_SELECT.equals(type)) {
+            return new PooledReadResult(userData, selectedBuffer(owner, (int) result, flags), result, flags, owner);
         } else if (OperationType.WRITE.equals(type)) {
-            libCDispatcher.free(UserData.getBuffer(nativeUserData));
-            return new WriteResult(id, result);
-        } else if (OperationType.WRITE_FIXED.equals(type)) {
-            return new WriteResult(id, result);
+            libCDispatcher.free(buffer);
+            return new WriteResult(userData, result);
+        } else if (OperationType.READV.equals(type)) {
+            libCDispatcher.free(buffer);
+            return new ReadResult(userData, MemorySegment.NULL, result);
+        } else if (OperationType.WRITEV.equals(type)) {
+            libCDispatcher.free(buffer);
+            return new WriteResult(userData, result);
+        } else if (OperationType.WRITE_FIXED.equals(type) || OperationType.SYNC.equals(type)
+                || OperationType.SPACE.equals(type) || OperationType.SPLICE.equals(type)) {
+            return new WriteResult(userData, result);
         } else if (OperationType.OPEN.equals(type)) {
-            libCDispatcher.free(UserData.getBuffer(nativeUserData));
-            return new OpenResult(id, (int) result);
+            libCDispatcher.free(buffer);
+            return new OpenResult(userData, (int) result);
         } else if (OperationType.CLOSE.equals(type)) {
-            return new CloseResult(id, (int) result);
+            return new CloseResult(userData, (int) result);
+        } else if (OperationType.CANCEL.equals(type)) {
+            return new CancelResult(userData, (int) result);
+        } else if (OperationType.TIMEOUT.equals(type)) {
+            return new TimeoutResult(userData, (int) result);
+        } else if (OperationType.STATX.equals(type)) {
+            StatxResult statx = StatxResult.of(userData, (int) result, buffer);
+            libCDispatcher.free(buffer);
+            return statx;
         }
 
-        libCDispatcher.free(nativeUserData);
-
         throw new IllegalStateException("Unexpected result type: " + type);
     }
 
     MemorySegment[] registerBuffers(int bufferSize, int nrIovecs) {
         var iovecStructure = libCDispatcher.allocateIovec(arena, bufferSize, nrIovecs);
-        registerBuffers(ring, iovecStructure.iovecArray(), nrIovecs);
+        int ret = registerBuffers(ring, iovecStructure.iovecArray(), nrIovecs);
+        if (ret < 0) {
+            throw new RuntimeException("Failed to register buffers: " + libCDispatcher.strerror(ret));
+        }
         return iovecStructure.buffers();
     }
 
+    BufferRing registerBufferRing(int groupId, int entries, int bufferSize) {
+        BufferRing.checkEntries(entries);
+
+        try (Arena confined = Arena.ofConfined()) {
+            MemorySegment ret = confined.allocate(JAVA_INT);
+            MemorySegment bufRing = setupBufRing.setupBufRing(ring, entries, groupId, 0, ret);
+            if (bufRing.address() == 0) {
+                throw new RuntimeException("Failed to register buffer ring: " + libCDispatcher.strerror(ret.get(JAVA_INT, 0)));
+            }
+            return new BufferRing(this, bufRing, groupId, entries, bufferSize);
+        }
+    }
+
+    void freeBufferRing(MemorySegment bufRing, int entries, int groupId) {
+        int ret = freeBufRing.freeBufRing(ring, bufRing, entries, groupId);
+        if (ret < 0) {
+            throw new RuntimeException("Failed to free buffer ring: " + libCDispatcher.strerror(ret));
+        }
+    }
+
     int registerFiles(int[] fileDescriptors) {
         int count = fileDescriptors.length;
         MemorySegment fdArray = arena.allocate(JAVA_INT.byteSize() * count);
@@ -435,7 +1160,7 @@ record LibUringDispatcher(Arena arena,
     public void close() {
         closeRing();
         libCDispatcher.free(cqePtr);
-        libCDispatcher.free(cqePtrPtr);
+        libCDispatcher.free(waitTimeout);
         closeArena();
     }
 
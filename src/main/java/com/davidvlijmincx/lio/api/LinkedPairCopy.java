@@ -0,0 +1,204 @@
+package com.davidvlijmincx.lio.api;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ * Copies a range of a file in chunks, every chunk in flight moves its bytes with a first operation that is linked to
+ * a second one that writes them to the target. A new pair is only queued once a chunk comes back.
+ * <p>
+ * The second operation of a pair is prepared before the first completed, so it always covers the whole chunk. A short
+ * first operation breaks the link and the second completes with ECANCELED, the bytes that were moved are then written
+ * on their own before the rest of the chunk is moved. A short write is continued from where it stopped.
+ */
+abstract class LinkedPairCopy<C extends LinkedPairCopy.Chunk> {
+
+    private static final int ECANCELED = 125;
+
+    final JUring jUring;
+    final LibUringDispatcher ioUring;
+    final ArrayDeque<C> idleChunks;
+    private final Chunk[] inFlight;
+    private int pending;
+
+    LinkedPairCopy(JUring jUring, int chunks) {
+        this.jUring = jUring;
+        this.ioUring = jUring.ioUring();
+        this.idleChunks = new ArrayDeque<>(chunks);
+        this.inFlight = new Chunk[ioUring.requestSlots().capacity()];
+    }
+
+    /**
+     * Prepares the operation that moves {@code chunk.length} bytes at {@code chunk.start} of the source, linked to
+     * the next one.
+     *
+     * @return the id of the request
+     */
+    abstract long prepareMove(int source, C chunk);
+
+    /**
+     * Prepares the write of {@code length} bytes of the chunk, starting {@code from} bytes into it.
+     *
+     * @return the id of the request
+     */
+    abstract long prepareWrite(int target, C chunk, int from, int length);
+
+    long copy(FileDescriptor source, FileDescriptor target, long offset, long length) throws IOException {
+        int in = source.getFd();
+        int out = target.getFd();
+        long next = offset;
+        long end = offset + length;
+        long copied = 0;
+        IOException failure = null;
+
+        while (true) {
+            boolean prepared = false;
+            while (failure == null && next < end && !idleChunks.isEmpty() && ioUring.submissionQueueSpace() >= 2) {
+                C chunk = idleChunks.poll();
+                chunk.start = next;
+                chunk.length = (int) Math.min(chunk.size, end - next);
+                next += chunk.length;
+                moveAndWrite(in, out, chunk);
+                prepared = true;
+            }
+            if (prepared) {
+                jUring.submit();
+            }
+            if (pending == 0) {
+                break;
+            }
+
+            Result result = jUring.waitForResult();
+            long res = switch (result) {
+                case ReadResult r -> r.result();
+                case WriteResult r -> r.result();
+                default -> throw new IllegalStateException("Unexpected completion " + result);
+            };
+            C chunk = completed(result.id());
+
+            if (result.id() == chunk.moveId) {
+                chunk.moved = (int) res;
+                chunk.moveDone = true;
+                if (chunk.writeCancelled) {
+                    failure = resumeAfterShortMove(out, chunk, failure);
+                }
+                continue;
+            }
+            if (res == -ECANCELED && chunk.paired) {
+                // the completions of a broken link can arrive in either order
+                if (chunk.moveDone) {
+                    failure = resumeAfterShortMove(out, chunk, failure);
+                } else {
+                    chunk.writeCancelled = true;
+                }
+                continue;
+            }
+
+            boolean pairWrite = chunk.paired;
+            chunk.paired = false;
+            if (chunk.moved == 0) {
+                failure = failure != null ? failure : sourceEnded(chunk);
+                continue;
+            }
+            if (chunk.moved < 0 || res < 0) {
+                failure = failure != null ? failure : failed(chunk, (int) -Math.min(chunk.moved, res));
+                continue;
+            }
+
+            int written = pairWrite ? (int) Math.min(res, chunk.moved) : chunk.written + (int) res;
+            copied += written - chunk.written;
+            chunk.written = written;
+
+            if (failure != null) {
+                continue;
+            }
+            if (chunk.written < chunk.moved) {
+                writeRest(out, chunk);
+                jUring.submit();
+            } else if (chunk.moved < chunk.length) {
+                chunk.start += chunk.moved;
+                chunk.length -= chunk.moved;
+                moveAndWrite(in, out, chunk);
+                jUring.submit();
+            } else {
+                idleChunks.add(chunk);
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+        return copied;
+    }
+
+    private IOException resumeAfterShortMove(int out, C chunk, IOException failure) {
+        chunk.paired = false;
+        chunk.writeCancelled = false;
+        if (failure != null) {
+            return failure;
+        }
+        if (chunk.moved > 0) {
+            writeRest(out, chunk);
+            jUring.submit();
+            return null;
+        }
+        return chunk.moved == 0 ? sourceEnded(chunk) : failed(chunk, -chunk.moved);
+    }
+
+    private void moveAndWrite(int in, int out, C chunk) {
+        chunk.moved = 0;
+        chunk.written = 0;
+        chunk.moveDone = false;
+        chunk.writeCancelled = false;
+        chunk.paired = true;
+        chunk.moveId = track(prepareMove(in, chunk), chunk);
+        chunk.writeId = track(prepareWrite(out, chunk, 0, chunk.length), chunk);
+    }
+
+    private void writeRest(int out, C chunk) {
+        chunk.writeId = track(prepareWrite(out, chunk, chunk.written, chunk.moved - chunk.written), chunk);
+    }
+
+    private long track(long id, C chunk) {
+        inFlight[ioUring.requestSlots().slotOf(id)] = chunk;
+        pending++;
+        return id;
+    }
+
+    @SuppressWarnings("unchecked")
+    private C completed(long id) {
+        int slot = ioUring.requestSlots().slotOf(id);
+        Chunk chunk = inFlight[slot];
+        if (chunk == null || (id != chunk.moveId && id != chunk.writeId)) {
+            throw new IllegalStateException("Completion " + id + " does not belong to the copy, the ring has to be idle while copying");
+        }
+        inFlight[slot] = null;
+        pending--;
+        return (C) chunk;
+    }
+
+    private static IOException sourceEnded(Chunk chunk) {
+        return new IOException("Source ended at offset " + chunk.start + " before the end of the range");
+    }
+
+    private static IOException failed(Chunk chunk, int errno) {
+        return new IOException("Copy at offset " + chunk.start + " failed: " + NativeDispatcher.C.strerror(errno));
+    }
+
+    static class Chunk {
+        final int size;
+        long start;
+        int length;
+        int moved;
+        int written;
+        long moveId;
+        long writeId;
+        boolean moveDone;
+        boolean writeCancelled;
+        boolean paired;
+
+        Chunk(int size) {
+            this.size = size;
+        }
+    }
+}
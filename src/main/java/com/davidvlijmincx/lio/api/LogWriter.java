@@ -0,0 +1,329 @@
+package com.davidvlijmincx.lio.api;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
+/**
+ * Append-only log with group commit. Appends from any number of threads are coalesced into one sequential write
+ * into a registered buffer, linked to an fdatasync, and every append of the group completes once that sync did.
+ * <p>
+ * A single writer thread owns the ring. While a group is being written and synced the next group collects the
+ * appends that arrive in the meantime, so the size of a group follows the load. Groups are acknowledged in the order
+ * they were submitted, a group is only durable once every group before it is. After a group failed every later
+ * group fails as well and the log stops accepting appends.
+ */
+public final class LogWriter implements AutoCloseable {
+
+    // queued by close to wake up a writer that waits for the first append of a group
+    private static final Append WAKE_UP = new Append(new byte[0], null);
+
+    private final JUring jUring;
+    private final FileDescriptor fd;
+    private final MemorySegment[] buffers;
+    private final ArrayDeque<Integer> freeBuffers;
+    private final BlockingQueue<Append> appends;
+    private final Map<Long, Group> groupsInFlight;
+    private final ArrayDeque<Group> unacknowledged;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    private long position;
+    private Append carry;
+    private IOException failure;
+
+    private final AtomicLong committedGroups = new AtomicLong();
+    private final AtomicLong committedAppends = new AtomicLong();
+    private final AtomicLong committedBytes = new AtomicLong();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final AtomicLong totalCommitNanos = new AtomicLong();
+    private final AtomicLong maxCommitNanos = new AtomicLong();
+
+    /**
+     * Opens the log at {@code path}, creating it when it does not exist, and appends after its current end.
+     *
+     * @param groupSize      the size in bytes of the registered buffer a group is collected in, the largest append
+     * @param groupsInFlight the number of groups that are written and synced at the same time
+     */
+    public LogWriter(Path path, int groupSize, int groupsInFlight) throws IOException {
+        if (groupSize <= 0 || groupsInFlight <= 0) {
+            throw new IllegalArgumentException("Group size and groups in flight must be positive");
+        }
+        if (Files.notExists(path)) {
+            Files.createFile(path);
+        }
+
+        this.position = Files.size(path);
+        this.jUring = new JUring(groupsInFlight * 2);
+        this.fd = new FileDescriptor(path.toString(), LinuxOpenOptions.WRITE, 0);
+        this.buffers = jUring.registerBuffers(groupSize, groupsInFlight);
+        this.freeBuffers = new ArrayDeque<>(groupsInFlight);
+        this.appends = new LinkedBlockingQueue<>();
+        this.groupsInFlight = new HashMap<>(groupsInFlight * 4);
+        this.unacknowledged = new ArrayDeque<>(groupsInFlight);
+
+        for (int i = 0; i < groupsInFlight; i++) {
+            freeBuffers.add(i);
+        }
+
+        this.writerThread = Thread.ofPlatform().daemon(true).name("juring-log-writer").start(this::writeGroups);
+    }
+
+    /**
+     * Appends a record to the log.
+     *
+     * @return a future that completes with the position of the record in the log once it is durable
+     */
+    public CompletableFuture<Long> append(byte[] record) {
+        if (record.length > buffers[0].byteSize()) {
+            throw new IllegalArgumentException("Record of " + record.length + " bytes does not fit in a group of " + buffers[0].byteSize() + " bytes");
+        }
+
+        Append append = new Append(record, new CompletableFuture<>());
+        appendLock.lock();
+        try {
+            // checked under the lock so no append is queued after the writer stopped
+            if (!running) {
+                throw new IllegalStateException("Log writer is closed");
+            }
+            appends.add(append);
+        } finally {
+            appendLock.unlock();
+        }
+        return append.durable;
+    }
+
+    public Metrics metrics() {
+        return new Metrics(committedGroups.get(), committedAppends.get(), committedBytes.get(), (int) maxBatchSize.get(),
+                Duration.ofNanos(totalCommitNanos.get()), Duration.ofNanos(maxCommitNanos.get()));
+    }
+
+    private void writeGroups() {
+        try {
+            while (running || carry != null || !appends.isEmpty() || !groupsInFlight.isEmpty()) {
+                if (failure != null) {
+                    failWaiting(failure);
+                } else if (!freeBuffers.isEmpty()) {
+                    Group group = collectGroup(groupsInFlight.isEmpty());
+                    if (group != null) {
+                        submit(group);
+                        continue;
+                    }
+                }
+                if (!groupsInFlight.isEmpty()) {
+                    switch (jUring.waitForResult()) {
+                        case WriteResult result -> complete(result.id(), result.result());
+                        case Result result -> throw new IllegalStateException("Unexpected completion " + result);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            stop();
+            failPending(e);
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            stop();
+            failPending(e);
+            throw e;
+        }
+    }
+
+    private void stop() {
+        appendLock.lock();
+        try {
+            running = false;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Copies waiting appends into a free buffer until it is full, only waits for the first append when nothing
+     * else is in flight.
+     */
+    private Group collectGroup(boolean wait) throws InterruptedException {
+        Append first = carry != null ? carry : wait ? appends.take() : appends.poll();
+        carry = null;
+        if (first == WAKE_UP) {
+            first = appends.poll();
+        }
+        if (first == null) {
+            return null;
+        }
+
+        int bufferIndex = freeBuffers.poll();
+        MemorySegment buffer = buffers[bufferIndex];
+        Group group = new Group(bufferIndex, position);
+
+        Append append = first;
+        while (append != null) {
+            if (group.length + append.record.length > buffer.byteSize()) {
+                carry = append;
+                break;
+            }
+            if (append != WAKE_UP) {
+                MemorySegment.copy(append.record, 0, buffer, JAVA_BYTE, group.length, append.record.length);
+                group.add(append);
+            }
+            append = appends.poll();
+        }
+        return group;
+    }
+
+    private void submit(Group group) {
+        group.writeId = jUring.prepareWriteFixed(fd, group.length, group.position, group.bufferIndex, SqeFlags.of(SqeOptions.IOSQE_IO_LINK));
+        group.syncId = jUring.prepareFsync(fd, true, SqeFlags.NONE);
+        group.submittedAt = System.nanoTime();
+        jUring.submit();
+
+        position += group.length;
+        groupsInFlight.put(group.writeId, group);
+        groupsInFlight.put(group.syncId, group);
+        unacknowledged.add(group);
+    }
+
+    // the sync only completes before the write when a failed write cancelled it, the group fails either way
+    private void complete(long id, long result) {
+        Group group = groupsInFlight.remove(id);
+        if (group == null) {
+            throw new IllegalStateException("Completion " + id + " does not belong to a group in flight");
+        }
+        if (id == group.writeId) {
+            group.written = result;
+            return;
+        }
+
+        freeBuffers.add(group.bufferIndex);
+        group.synced = true;
+        group.syncResult = result;
+        while (!unacknowledged.isEmpty() && unacknowledged.peek().synced) {
+            acknowledge(unacknowledged.poll());
+        }
+    }
+
+    private void acknowledge(Group group) {
+        if (failure == null && (group.written != group.length || group.syncResult < 0)) {
+            failure = new IOException("Group commit at position " + group.position + " failed, wrote "
+                    + group.written + " of " + group.length + " bytes, sync returned " + group.syncResult);
+            stop();
+        }
+        if (failure != null) {
+            group.appends.forEach(append -> append.durable.completeExceptionally(failure));
+            return;
+        }
+
+        long commitNanos = System.nanoTime() - group.submittedAt;
+        committedGroups.incrementAndGet();
+        committedAppends.addAndGet(group.appends.size());
+        committedBytes.addAndGet(group.length);
+        maxBatchSize.accumulateAndGet(group.appends.size(), Math::max);
+        totalCommitNanos.addAndGet(commitNanos);
+        maxCommitNanos.accumulateAndGet(commitNanos, Math::max);
+
+        long recordPosition = group.position;
+        for (Append append : group.appends) {
+            append.durable.complete(recordPosition);
+            recordPosition += append.record.length;
+        }
+    }
+
+    private void failPending(Throwable cause) {
+        unacknowledged.forEach(group -> group.appends.forEach(append -> append.durable.completeExceptionally(cause)));
+        failWaiting(cause);
+    }
+
+    private void failWaiting(Throwable cause) {
+        if (carry != null) {
+            carry.durable.completeExceptionally(cause);
+            carry = null;
+        }
+        Append append;
+        while ((append = appends.poll()) != null) {
+            if (append != WAKE_UP) {
+                append.durable.completeExceptionally(cause);
+            }
+        }
+    }
+
+    /**
+     * Waits for every append made before closing to become durable.
+     */
+    @Override
+    public void close() {
+        stop();
+        appends.add(WAKE_UP);
+        // the writer owns the ring, so it has to finish before the ring is closed
+        boolean interrupted = false;
+        while (writerThread.isAlive()) {
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        fd.close();
+        jUring.close();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param groups          number of groups that were committed
+     * @param appends         number of appends that were committed
+     * @param bytes           number of bytes that were committed
+     * @param maxBatchSize    largest number of appends in a single group
+     * @param totalCommitTime time spent between submitting groups and their sync completing, summed over all groups
+     * @param maxCommitTime   longest time between submitting a group and its sync completing
+     */
+    public record Metrics(long groups, long appends, long bytes, int maxBatchSize, Duration totalCommitTime, Duration maxCommitTime) {
+
+        public double averageBatchSize() {
+            return groups == 0 ? 0 : (double) appends / groups;
+        }
+
+        public Duration averageCommitLatency() {
+            return groups == 0 ? Duration.ZERO : totalCommitTime.dividedBy(groups);
+        }
+    }
+
+    private record Append(byte[] record, CompletableFuture<Long> durable) {
+    }
+
+    private static final class Group {
+        private final int bufferIndex;
+        private final long position;
+        private final List<Append> appends = new ArrayList<>();
+        private int length;
+        private long writeId;
+        private long syncId;
+        private long written;
+        private long submittedAt;
+        private boolean synced;
+        private long syncResult;
+
+        private Group(int bufferIndex, long position) {
+            this.bufferIndex = bufferIndex;
+            this.position = position;
+        }
+
+        private void add(Append append) {
+            appends.add(append);
+            length += append.record.length;
+        }
+    }
+}
@@ -4,8 +4,12 @@ final class NativeDispatcher {
 
     static final LibCDispatcher C = LibCDispatcher.create();
 
-    static LibUringDispatcher getUringInstance(int queueDepth, IoUringOptions... ioUringflags) {
-        return LibUringDispatcher.create(queueDepth, ioUringflags);
+    static LibUringDispatcher getUringInstance(int queueDepth, SubmissionEngine engine, IoUringOptions... ioUringflags) {
+        return getUringInstance(RingConfig.builder(queueDepth).flags(ioUringflags).build(), engine);
+    }
+
+    static LibUringDispatcher getUringInstance(RingConfig config, SubmissionEngine engine) {
+        return LibUringDispatcher.create(config, engine);
     }
 
     private NativeDispatcher() {
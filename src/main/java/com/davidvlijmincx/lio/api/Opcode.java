@@ -0,0 +1,30 @@
+package com.davidvlijmincx.lio.api;
+
+enum Opcode {
+
+    READV((byte) 1),
+    WRITEV((byte) 2),
+    FSYNC((byte) 3),
+    READ_FIXED((byte) 4),
+    WRITE_FIXED((byte) 5),
+    SYNC_FILE_RANGE((byte) 8),
+    TIMEOUT((byte) 11),
+    ASYNC_CANCEL((byte) 14),
+    LINK_TIMEOUT((byte) 15),
+    FALLOCATE((byte) 17),
+    OPENAT((byte) 18),
+    CLOSE((byte) 19),
+    STATX((byte) 21),
+    READ((byte) 22),
+    WRITE((byte) 23),
+    SPLICE((byte) 30),
+    FTRUNCATE((byte) 55),
+    READV_FIXED((byte) 60),
+    WRITEV_FIXED((byte) 61);
+
+    final byte value;
+
+    Opcode(byte value) {
+        this.value = value;
+    }
+}
@@ -1,16 +1,24 @@
 package com.davidvlijmincx.lio.api;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public enum OperationType {
     READ(0),
     WRITE(1),
     WRITE_FIXED(2),
     OPEN(3),
-    CLOSE(4);
-
-    private static final Map<Integer, OperationType> map = new HashMap<>();
+    CLOSE(4),
+    READ_FIXED(5),
+    READ_SELECT(6),
+    READV(7),
+    WRITEV(8),
+    CHAIN(9),
+    SYNC(10),
+    SPACE(11),
+    STATX(12),
+    READ_ALL(13),
+    SPLICE(14),
+    TIMEOUT(15),
+    LINK_TIMEOUT(16),
+    CANCEL(17);
 
     private final int index;
 
@@ -21,14 +29,4 @@ public enum OperationType {
     public int getIndex() {
         return index;
     }
-
-    static {
-        for (OperationType pageType : OperationType.values()) {
-            map.put(pageType.index, pageType);
-        }
-    }
-
-    public static OperationType valueOf(int pageType) {
-        return map.get(pageType);
-    }
 }
@@ -0,0 +1,36 @@
+package com.davidvlijmincx.lio.api;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Result of a read into a buffer that belongs to a pool, a {@link BufferRing} the kernel picked the buffer from or a
+ * leased {@link FixedBufferPool} buffer. Freeing the result hands the buffer back to its pool.
+ */
+public record PooledReadResult(long id, MemorySegment buffer, long result, int flags, BufferOwner owner) implements Result, AutoCloseable {
+
+    static final int IORING_CQE_F_BUFFER = 1;
+    static final int IORING_CQE_BUFFER_SHIFT = 16;
+
+    /**
+     * Whether the kernel picked the buffer of this read from a {@link BufferRing}.
+     */
+    public boolean hasBufferId() {
+        return (flags & IORING_CQE_F_BUFFER) != 0;
+    }
+
+    public int bufferId() {
+        if (!hasBufferId()) {
+            throw new IllegalStateException("Read did not select a buffer from a buffer ring");
+        }
+        return flags >>> IORING_CQE_BUFFER_SHIFT;
+    }
+
+    public void freeBuffer() {
+        owner.release(buffer, flags);
+    }
+
+    @Override
+    public void close() throws Exception {
+        freeBuffer();
+    }
+}
@@ -4,6 +4,10 @@ import java.lang.foreign.MemorySegment;
 
 public record ReadResult(long id, MemorySegment buffer, long result) implements Result, AutoCloseable {
 
+    /**
+     * Frees the buffer JUring allocated for the read. The buffer of a fixed read, or of a read into a buffer of the
+     * caller, is not owned by the result and must not be freed.
+     */
     public void freeBuffer() {
         NativeDispatcher.C.free(buffer);
     }
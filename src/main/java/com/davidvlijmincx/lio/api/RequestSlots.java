@@ -0,0 +1,147 @@
+package com.davidvlijmincx.lio.api;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Preallocated table of in-flight requests for a single ring.
+ * <p>
+ * The user_data of every SQE is {@code generation << 32 | step << 24 | slot}. The generation comes from a per-ring
+ * counter that wraps around and skips 0, and a CQE whose generation no longer matches its slot is a stale or
+ * duplicate completion. The detection is modulo 2^32, a stale CQE is only taken for the current request of its slot
+ * when a multiple of 2^32 - 1 requests were started on the ring in between. The step tells the SQEs of a request
+ * that spans several of them apart, like a {@link Chain}, the id of a request always has step 0. Acquiring and
+ * releasing a slot does not allocate.
+ */
+final class RequestSlots {
+
+    static final int MAX_STEPS = 1 << 8;
+    private static final int STEP_SHIFT = 24;
+    private static final long SLOT_MASK = (1L << STEP_SHIFT) - 1;
+    private static final long STEP_MASK = (long) (MAX_STEPS - 1) << STEP_SHIFT;
+    private static final int FREE = 0;
+    private static final VarHandle GENERATIONS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final long TIMESPEC_SIZE = 16;
+
+    private final int[] generations;
+    private final OperationType[] types;
+    private final MemorySegment[] buffers;
+    private final BufferOwner[] owners;
+    private final long[] states;
+    private final MemorySegment timespecs;
+    private final FreeList freeSlots;
+    private int nextGeneration = 1;
+
+    RequestSlots(int capacity) {
+        if (capacity > SLOT_MASK + 1) {
+            throw new IllegalArgumentException("At most " + (SLOT_MASK + 1) + " request slots are supported: " + capacity);
+        }
+        generations = new int[capacity];
+        types = new OperationType[capacity];
+        buffers = new MemorySegment[capacity];
+        owners = new BufferOwner[capacity];
+        states = new long[capacity];
+        timespecs = Arena.ofAuto().allocate(TIMESPEC_SIZE * capacity, Long.BYTES);
+        freeSlots = new FreeList(capacity);
+    }
+
+    long acquire(OperationType type, MemorySegment buffer, BufferOwner owner) {
+        int slot = freeSlots.pop();
+        if (slot == FreeList.EMPTY) {
+            throw new IllegalStateException("No free request slots, " + freeSlots.capacity() + " requests are in flight");
+        }
+
+        int generation = nextGeneration();
+        types[slot] = type;
+        buffers[slot] = buffer;
+        owners[slot] = owner;
+        states[slot] = 0;
+        GENERATIONS.setRelease(generations, slot, generation);
+
+        return ((long) generation << 32) | slot;
+    }
+
+    /**
+     * Validates the user_data of a CQE and returns its slot. The slot stays owned by the request until
+     * {@link #release(int)} is called.
+     */
+    int slotOf(long userData) {
+        int slot = (int) (userData & SLOT_MASK);
+        int generation = (int) (userData >>> 32);
+
+        if (slot < 0 || slot >= generations.length || generation == FREE
+                || (int) GENERATIONS.getAcquire(generations, slot) != generation) {
+            throw new IllegalStateException("Stale or duplicate completion for user_data " + Long.toHexString(userData));
+        }
+        return slot;
+    }
+
+    static long withStep(long id, int step) {
+        return id | ((long) step << STEP_SHIFT);
+    }
+
+    static int stepOf(long userData) {
+        return (int) ((userData & STEP_MASK) >>> STEP_SHIFT);
+    }
+
+    static long idOf(long userData) {
+        return userData & ~STEP_MASK;
+    }
+
+    OperationType type(int slot) {
+        return types[slot];
+    }
+
+    MemorySegment buffer(int slot) {
+        return buffers[slot];
+    }
+
+    void buffer(int slot, MemorySegment buffer) {
+        buffers[slot] = buffer;
+    }
+
+    BufferOwner owner(int slot) {
+        return owners[slot];
+    }
+
+    /**
+     * Scratch state of a request that completes over several CQEs.
+     */
+    long state(int slot) {
+        return states[slot];
+    }
+
+    void state(int slot, long state) {
+        states[slot] = state;
+    }
+
+    /**
+     * Native {@code struct __kernel_timespec} of the slot, so a timeout does not have to allocate one.
+     */
+    MemorySegment timespec(int slot) {
+        return timespecs.asSlice(slot * TIMESPEC_SIZE, TIMESPEC_SIZE);
+    }
+
+    void release(int slot) {
+        types[slot] = null;
+        buffers[slot] = null;
+        owners[slot] = null;
+        GENERATIONS.setRelease(generations, slot, FREE);
+        freeSlots.push(slot);
+    }
+
+    int capacity() {
+        return generations.length;
+    }
+
+    // wraps from Integer.MAX_VALUE to Integer.MIN_VALUE, 0 marks a free slot and is skipped
+    private int nextGeneration() {
+        int generation = nextGeneration++;
+        if (generation == FREE) {
+            generation = nextGeneration++;
+        }
+        return generation;
+    }
+}
@@ -1,5 +1,5 @@
 package com.davidvlijmincx.lio.api;
 
-public sealed interface Result permits ReadResult, WriteResult, OpenResult, CloseResult {
+public sealed interface Result permits ReadResult, PooledReadResult, WriteResult, OpenResult, CloseResult, ChainResult, StatxResult, TimeoutResult, CancelResult {
     long id();
 }
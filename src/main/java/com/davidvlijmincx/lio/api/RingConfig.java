@@ -0,0 +1,189 @@
+package com.davidvlijmincx.lio.api;
+
+import java.lang.foreign.MemorySegment;
+import java.time.Duration;
+
+import static com.davidvlijmincx.lio.api.IoUringOptions.*;
+
+/**
+ * Setup of a ring, filled into {@code io_uring_params} when the ring is created.
+ * {@snippet :
+ * RingConfig config = RingConfig.builder(256)
+ *         .flags(IORING_SETUP_SINGLE_ISSUER, IORING_SETUP_DEFER_TASKRUN)
+ *         .cqEntries(1024)
+ *         .build();
+ * JUring jUring = new JUring(config);
+ *}
+ */
+public final class RingConfig {
+
+    private final int entries;
+    private final int flags;
+    private final int cqEntries;
+    private final int sqThreadCpu;
+    private final int sqThreadIdle;
+    private final int wqFd;
+    private final boolean registerRingFd;
+    private final BatchPolicy batchPolicy;
+
+    private RingConfig(Builder builder) {
+        this.entries = builder.entries;
+        this.flags = builder.flags;
+        this.cqEntries = builder.cqEntries;
+        this.sqThreadCpu = builder.sqThreadCpu;
+        this.sqThreadIdle = builder.sqThreadIdle;
+        this.wqFd = builder.wqFd;
+        this.registerRingFd = builder.registerRingFd;
+        this.batchPolicy = builder.batchPolicy;
+    }
+
+    /**
+     * @param entries the size of the submission queue
+     */
+    public static Builder builder(int entries) {
+        return new Builder(entries);
+    }
+
+    public int entries() {
+        return entries;
+    }
+
+    public int flags() {
+        return flags;
+    }
+
+    public boolean hasFlag(IoUringOptions option) {
+        return (flags & option.value) != 0;
+    }
+
+    BatchPolicy batchPolicy() {
+        return batchPolicy;
+    }
+
+    boolean registersRingFd() {
+        return registerRingFd;
+    }
+
+    /**
+     * Whether the ring can only be used from the thread that creates it.
+     */
+    boolean confined() {
+        return registerRingFd || hasFlag(IORING_SETUP_DEFER_TASKRUN);
+    }
+
+    /**
+     * Number of requests that can be in flight, which is what fits in the completion queue.
+     */
+    int requestCapacity() {
+        return cqEntries > 0 ? cqEntries : entries * 2;
+    }
+
+    void fill(MemorySegment params) {
+        io_uring_params.flags(params, flags);
+        io_uring_params.cq_entries(params, cqEntries);
+        io_uring_params.sq_thread_cpu(params, sqThreadCpu);
+        io_uring_params.sq_thread_idle(params, sqThreadIdle);
+        io_uring_params.wq_fd(params, wqFd);
+    }
+
+    public static final class Builder {
+
+        private final int entries;
+        private int flags;
+        private int cqEntries;
+        private int sqThreadCpu;
+        private int sqThreadIdle;
+        private int wqFd;
+        private boolean registerRingFd;
+        private BatchPolicy batchPolicy = BatchPolicy.whenFull();
+
+        private Builder(int entries) {
+            if (entries <= 0) {
+                throw new IllegalArgumentException("A ring needs at least one entry: " + entries);
+            }
+            this.entries = entries;
+        }
+
+        public Builder flags(IoUringOptions... options) {
+            flags |= IoUringOptions.combineOptions(options);
+            return this;
+        }
+
+        /**
+         * Confines the ring to the thread that creates it. Completion work is deferred until that thread waits,
+         * peeks or calls {@link JUring#processEvents()}, so it is never interrupted to run it. Using the ring from
+         * another thread throws {@link IllegalStateException}.
+         */
+        public Builder threadConfined() {
+            flags |= IORING_SETUP_SINGLE_ISSUER.value | IORING_SETUP_DEFER_TASKRUN.value | IORING_SETUP_TASKRUN_FLAG.value;
+            return this;
+        }
+
+        public Builder batchPolicy(BatchPolicy batchPolicy) {
+            this.batchPolicy = batchPolicy;
+            return this;
+        }
+
+        /**
+         * Registers the ring fd with {@code io_uring_register_ring_fd}, so entering the ring skips looking up the
+         * file of the fd. The registration belongs to the thread that creates the ring, which confines the ring to
+         * that thread like {@link #threadConfined()} does.
+         */
+        public Builder registerRingFd() {
+            this.registerRingFd = true;
+            return this;
+        }
+
+        /**
+         * Sizes the completion queue, it has to be at least as large as the submission queue.
+         */
+        public Builder cqEntries(int cqEntries) {
+            if (cqEntries < entries) {
+                throw new IllegalArgumentException("The completion queue cannot be smaller than the submission queue: " + cqEntries);
+            }
+            this.cqEntries = cqEntries;
+            flags |= IORING_SETUP_CQSIZE.value;
+            return this;
+        }
+
+        /**
+         * Pins the kernel submission thread of an {@link IoUringOptions#IORING_SETUP_SQPOLL} ring to {@code cpu}.
+         */
+        public Builder sqThreadCpu(int cpu) {
+            this.sqThreadCpu = cpu;
+            flags |= IORING_SETUP_SQ_AFF.value;
+            return this;
+        }
+
+        /**
+         * Lets a kernel thread poll the submission queue, so submitting only enters the kernel when the thread
+         * has been idle for longer than {@code idle} and went to sleep.
+         */
+        public Builder sqPoll(Duration idle) {
+            flags |= IORING_SETUP_SQPOLL.value;
+            return sqThreadIdle(idle);
+        }
+
+        /**
+         * How long the kernel submission thread of an {@link IoUringOptions#IORING_SETUP_SQPOLL} ring spins
+         * without work before it goes to sleep.
+         */
+        public Builder sqThreadIdle(Duration idle) {
+            this.sqThreadIdle = Math.toIntExact(idle.toMillis());
+            return this;
+        }
+
+        /**
+         * Shares the async workers, and the submission thread when polling, of {@code jUring}.
+         */
+        public Builder attachWq(JUring jUring) {
+            this.wqFd = jUring.ioUring().ringFd();
+            flags |= IORING_SETUP_ATTACH_WQ.value;
+            return this;
+        }
+
+        public RingConfig build() {
+            return new RingConfig(this);
+        }
+    }
+}
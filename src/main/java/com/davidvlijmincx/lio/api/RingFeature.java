@@ -0,0 +1,30 @@
+package com.davidvlijmincx.lio.api;
+
+/**
+ * Features the kernel reports for a ring, see {@link JUring#supports(RingFeature)}.
+ */
+public enum RingFeature {
+
+    IORING_FEAT_SINGLE_MMAP(1),             // 1
+    IORING_FEAT_NODROP(1 << 1),             // 2
+    IORING_FEAT_SUBMIT_STABLE(1 << 2),      // 4
+    IORING_FEAT_RW_CUR_POS(1 << 3),         // 8
+    IORING_FEAT_CUR_PERSONALITY(1 << 4),    // 16
+    IORING_FEAT_FAST_POLL(1 << 5),          // 32
+    IORING_FEAT_POLL_32BITS(1 << 6),        // 64
+    IORING_FEAT_SQPOLL_NONFIXED(1 << 7),    // 128
+    IORING_FEAT_EXT_ARG(1 << 8),            // 256
+    IORING_FEAT_NATIVE_WORKERS(1 << 9),     // 512
+    IORING_FEAT_RSRC_TAGS(1 << 10),         // 1024
+    IORING_FEAT_CQE_SKIP(1 << 11),          // 2048
+    IORING_FEAT_LINKED_FILE(1 << 12),       // 4096
+    IORING_FEAT_REG_REG_RING(1 << 13),      // 8192
+    IORING_FEAT_RECVSEND_BUNDLE(1 << 14),   // 16384
+    IORING_FEAT_MIN_TIMEOUT(1 << 15);       // 32768
+
+    final int value;
+
+    RingFeature(int value) {
+        this.value = value;
+    }
+}
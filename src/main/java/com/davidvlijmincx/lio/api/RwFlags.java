@@ -0,0 +1,31 @@
+package com.davidvlijmincx.lio.api;
+
+/**
+ * Per operation flags of vectored reads and writes, as passed to {@code preadv2} and {@code pwritev2}.
+ */
+public enum RwFlags {
+
+    RWF_HIPRI(1),           // 0x01
+    RWF_DSYNC(1 << 1),      // 0x02
+    RWF_SYNC(1 << 2),       // 0x04
+    RWF_NOWAIT(1 << 3),     // 0x08
+    RWF_APPEND(1 << 4);     // 0x10
+
+    final int value;
+
+    RwFlags(int value) {
+        this.value = value;
+    }
+
+    public static int of(RwFlags... options) {
+        return combineOptions(options);
+    }
+
+    static int combineOptions(RwFlags... options) {
+        int combinedFlags = 0;
+        for (RwFlags b : options) {
+            combinedFlags |= b.value;
+        }
+        return combinedFlags;
+    }
+}
@@ -0,0 +1,88 @@
+package com.davidvlijmincx.lio.api;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Copies a range of a file with splice through pipes, so the data never enters user space. Every chunk in flight
+ * has its own pipe, a splice into the pipe is linked to the splice out of it, see {@link LinkedPairCopy}.
+ */
+final class SpliceCopy extends LinkedPairCopy<SpliceCopy.Pipe> {
+
+    private static final int F_SETPIPE_SZ = 1031;
+    private static final int F_GETPIPE_SZ = 1032;
+    private static final int O_CLOEXEC = 0x80000;
+    private static final int DEFAULT_PIPE_SIZE = 1 << 16;
+    private static final int SPLICE_F_NONBLOCK = 2;
+    private static final long PIPE_OFFSET = -1;
+
+    private final Pipe[] pipes;
+
+    SpliceCopy(JUring jUring, int chunkSize, int chunksInFlight) {
+        super(jUring, chunksInFlight);
+        if (chunkSize <= 0 || chunksInFlight <= 0) {
+            throw new IllegalArgumentException("Chunk size and chunks in flight must be positive");
+        }
+        this.pipes = new Pipe[chunksInFlight];
+
+        try {
+            for (int i = 0; i < chunksInFlight; i++) {
+                pipes[i] = new Pipe(NativeDispatcher.C.pipe(O_CLOEXEC), chunkSize);
+                idleChunks.add(pipes[i]);
+            }
+        } catch (RuntimeException e) {
+            closePipes();
+            throw e;
+        }
+    }
+
+    @Override
+    long copy(FileDescriptor source, FileDescriptor target, long offset, long length) throws IOException {
+        try {
+            return super.copy(source, target, offset, length);
+        } finally {
+            closePipes();
+        }
+    }
+
+    @Override
+    long prepareMove(int source, Pipe pipe) {
+        long id = ioUring.newRequest(OperationType.SPLICE, MemorySegment.NULL);
+        ioUring.prepareSplice(source, pipe.start, pipe.writeEnd, PIPE_OFFSET, pipe.length, 0, SqeOptions.IOSQE_IO_LINK.value, id);
+        return id;
+    }
+
+    @Override
+    long prepareWrite(int target, Pipe pipe, int from, int length) {
+        long id = ioUring.newRequest(OperationType.SPLICE, MemorySegment.NULL);
+        ioUring.prepareSplice(pipe.readEnd, PIPE_OFFSET, target, pipe.start + from, length, SPLICE_F_NONBLOCK, (byte) 0, id);
+        return id;
+    }
+
+    private void closePipes() {
+        for (Pipe pipe : pipes) {
+            if (pipe != null) {
+                NativeDispatcher.C.close(pipe.readEnd);
+                NativeDispatcher.C.close(pipe.writeEnd);
+            }
+        }
+    }
+
+    static final class Pipe extends LinkedPairCopy.Chunk {
+        private final int readEnd;
+        private final int writeEnd;
+
+        private Pipe(int[] pipe, int chunkSize) {
+            super(chunkSize(pipe[1], chunkSize));
+            this.readEnd = pipe[0];
+            this.writeEnd = pipe[1];
+        }
+
+        // the pipe has to hold a whole chunk, when it cannot grow the chunk shrinks to the pipe
+        private static int chunkSize(int writeEnd, int chunkSize) {
+            NativeDispatcher.C.fcntl(writeEnd, F_SETPIPE_SZ, chunkSize);
+            int pipeSize = NativeDispatcher.C.fcntl(writeEnd, F_GETPIPE_SZ, 0);
+            return Math.min(chunkSize, pipeSize > 0 ? pipeSize : DEFAULT_PIPE_SIZE);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.davidvlijmincx.lio.api;
+
+import java.lang.foreign.MemorySegment;
+
+import static java.lang.foreign.ValueLayout.*;
+
+/**
+ * Writes submission queue entries from Java, mirroring the inline {@code io_uring_prep_*} helpers of liburing.
+ * Entries are addressed by their byte offset in the mmap'd sqes array, so filling one does not create a segment.
+ * {@snippet lang = c:
+ * struct io_uring_sqe {
+ *     __u8  opcode;          // 0
+ *     __u8  flags;           // 1
+ *     __u16 ioprio;          // 2
+ *     __s32 fd;              // 4
+ *     __u64 off;             // 8
+ *     __u64 addr;            // 16
+ *     __u32 len;             // 24
+ *     __u32 op_flags;        // 28 (rw_flags, open_flags, ...)
+ *     __u64 user_data;       // 32
+ *     __u16 buf_index;       // 40
+ *     __u16 personality;     // 42
+ *     __s32 file_index;      // 44
+ *     __u64 addr3;           // 48
+ *     __u64 __pad2[1];       // 56
+ * }
+ *}
+ */
+final class Sqe {
+
+    static final long SIZE = 64;
+
+    static final long OPCODE = 0;
+    static final long FLAGS = 1;
+    static final long IOPRIO = 2;
+    static final long FD = 4;
+    static final long OFF = 8;
+    static final long ADDR = 16;
+    static final long LEN = 24;
+    static final long OP_FLAGS = 28;
+    static final long USER_DATA = 32;
+    static final long BUF_INDEX = 40;
+    static final long PERSONALITY = 42;
+    static final long FILE_INDEX = 44;
+    static final long ADDR3 = 48;
+    static final long PAD = 56;
+
+    private Sqe() {
+    }
+
+    static void prepareRw(MemorySegment sqes, long sqe, Opcode opcode, int fd, long addr, int len, long offset) {
+        sqes.set(JAVA_BYTE, sqe + OPCODE, opcode.value);
+        sqes.set(JAVA_BYTE, sqe + FLAGS, (byte) 0);
+        sqes.set(JAVA_SHORT, sqe + IOPRIO, (short) 0);
+        sqes.set(JAVA_INT, sqe + FD, fd);
+        sqes.set(JAVA_LONG, sqe + OFF, offset);
+        sqes.set(JAVA_LONG, sqe + ADDR, addr);
+        sqes.set(JAVA_INT, sqe + LEN, len);
+        sqes.set(JAVA_INT, sqe + OP_FLAGS, 0);
+        sqes.set(JAVA_SHORT, sqe + BUF_INDEX, (short) 0);
+        sqes.set(JAVA_SHORT, sqe + PERSONALITY, (short) 0);
+        sqes.set(JAVA_INT, sqe + FILE_INDEX, 0);
+        sqes.set(JAVA_LONG, sqe + ADDR3, 0L);
+        sqes.set(JAVA_LONG, sqe + PAD, 0L);
+    }
+
+    static void prepareOpenAt(MemorySegment sqes, long sqe, int dfd, MemorySegment path, int flags, int mode) {
+        prepareRw(sqes, sqe, Opcode.OPENAT, dfd, path.address(), mode, 0);
+        sqes.set(JAVA_INT, sqe + OP_FLAGS, flags);
+    }
+
+    static void prepareOpenDirectAt(MemorySegment sqes, long sqe, int dfd, MemorySegment path, int flags, int mode, int fileIndex) {
+        prepareOpenAt(sqes, sqe, dfd, path, flags, mode);
+        setTargetFixedFile(sqes, sqe, fileIndex);
+    }
+
+    static void prepareStatx(MemorySegment sqes, long sqe, int dfd, MemorySegment path, int flags, int mask, MemorySegment statx) {
+        // statx passes the mask in len and the statx buffer in off
+        prepareRw(sqes, sqe, Opcode.STATX, dfd, path.address(), mask, statx.address());
+        sqes.set(JAVA_INT, sqe + OP_FLAGS, flags);
+    }
+
+    static void prepareClose(MemorySegment sqes, long sqe, int fd) {
+        prepareRw(sqes, sqe, Opcode.CLOSE, fd, 0L, 0, 0);
+    }
+
+    static void prepareCloseDirect(MemorySegment sqes, long sqe, int fileIndex) {
+        prepareClose(sqes, sqe, 0);
+        setTargetFixedFile(sqes, sqe, fileIndex);
+    }
+
+    static void prepareFixed(MemorySegment sqes, long sqe, Opcode opcode, int fd, MemorySegment buffer, int len, long offset, int bufferIndex) {
+        prepareRw(sqes, sqe, opcode, fd, buffer.address(), len, offset);
+        sqes.set(JAVA_SHORT, sqe + BUF_INDEX, (short) bufferIndex);
+    }
+
+    static void prepareVectored(MemorySegment sqes, long sqe, Opcode opcode, int fd, MemorySegment iovecs, int nrVecs, long offset, int rwFlags) {
+        prepareRw(sqes, sqe, opcode, fd, iovecs.address(), nrVecs, offset);
+        sqes.set(JAVA_INT, sqe + OP_FLAGS, rwFlags);
+    }
+
+    static void prepareVectoredFixed(MemorySegment sqes, long sqe, Opcode opcode, int fd, MemorySegment iovecs, int nrVecs, long offset, int rwFlags, int bufferIndex) {
+        prepareVectored(sqes, sqe, opcode, fd, iovecs, nrVecs, offset, rwFlags);
+        sqes.set(JAVA_SHORT, sqe + BUF_INDEX, (short) bufferIndex);
+    }
+
+    static void prepareFsync(MemorySegment sqes, long sqe, int fd, int fsyncFlags) {
+        prepareRw(sqes, sqe, Opcode.FSYNC, fd, 0L, 0, 0);
+        sqes.set(JAVA_INT, sqe + OP_FLAGS, fsyncFlags);
+    }
+
+    static void prepareSyncFileRange(MemorySegment sqes, long sqe, int fd, int length, long offset, int flags) {
+        prepareRw(sqes, sqe, Opcode.SYNC_FILE_RANGE, fd, 0L, length, offset);
+        sqes.set(JAVA_INT, sqe + OP_FLAGS, flags);
+    }
+
+    static void prepareFallocate(MemorySegment sqes, long sqe, int fd, int mode, long offset, long length) {
+        // fallocate passes the mode in len and the length in addr
+        prepareRw(sqes, sqe, Opcode.FALLOCATE, fd, length, mode, offset);
+    }
+
+    static void prepareFtruncate(MemorySegment sqes, long sqe, int fd, long length) {
+        prepareRw(sqes, sqe, Opcode.FTRUNCATE, fd, 0L, 0, length);
+    }
+
+    static void prepareSplice(MemorySegment sqes, long sqe, int fdIn, long offIn, int fdOut, long offOut, int length, int spliceFlags) {
+        // splice passes off_in in addr and fd_in in the place of file_index, -1 offsets are for pipes
+        prepareRw(sqes, sqe, Opcode.SPLICE, fdOut, offIn, length, offOut);
+        sqes.set(JAVA_INT, sqe + FILE_INDEX, fdIn);
+        sqes.set(JAVA_INT, sqe + OP_FLAGS, spliceFlags);
+    }
+
+    /**
+     * Prepares a timeout or link timeout, {@code timespec} is a {@code struct __kernel_timespec}.
+     */
+    static void prepareTimeout(MemorySegment sqes, long sqe, Opcode opcode, MemorySegment timespec, int count, int timeoutFlags) {
+        prepareRw(sqes, sqe, opcode, -1, timespec.address(), 1, count);
+        sqes.set(JAVA_INT, sqe + OP_FLAGS, timeoutFlags);
+    }
+
+    /**
+     * Cancels the operation with {@code userData}, or with {@code IORING_ASYNC_CANCEL_FD} the operations on {@code fd}.
+     */
+    static void prepareCancel(MemorySegment sqes, long sqe, long userData, int fd, int cancelFlags) {
+        prepareRw(sqes, sqe, Opcode.ASYNC_CANCEL, fd, userData, 0, 0);
+        sqes.set(JAVA_INT, sqe + OP_FLAGS, cancelFlags);
+    }
+
+    static void setBufferGroup(MemorySegment sqes, long sqe, int groupId) {
+        // buf_group shares its place with buf_index
+        sqes.set(JAVA_SHORT, sqe + BUF_INDEX, (short) groupId);
+    }
+
+    static void setFlags(MemorySegment sqes, long sqe, byte flags) {
+        sqes.set(JAVA_BYTE, sqe + FLAGS, flags);
+    }
+
+    static void addFlags(MemorySegment sqes, long sqe, byte flags) {
+        sqes.set(JAVA_BYTE, sqe + FLAGS, (byte) (sqes.get(JAVA_BYTE, sqe + FLAGS) | flags));
+    }
+
+    static boolean isLinked(MemorySegment sqes, long sqe) {
+        return (sqes.get(JAVA_BYTE, sqe + FLAGS) & (SqeOptions.IOSQE_IO_LINK.value | SqeOptions.IOSQE_IO_HARDLINK.value)) != 0;
+    }
+
+    static void setUserData(MemorySegment sqes, long sqe, long userData) {
+        sqes.set(JAVA_LONG, sqe + USER_DATA, userData);
+    }
+
+    private static void setTargetFixedFile(MemorySegment sqes, long sqe, int fileIndex) {
+        // 0 means "not a direct descriptor" to the kernel, so the slot is stored off by one
+        sqes.set(JAVA_INT, sqe + FILE_INDEX, fileIndex + 1);
+    }
+}
@@ -0,0 +1,50 @@
+package com.davidvlijmincx.lio.api;
+
+/**
+ * Precomputed combination of {@link SqeOptions}. Every mask has a single shared instance, so flags can be built
+ * once and passed to the prepare methods without allocating an options array per call.
+ */
+public final class SqeFlags {
+
+    public static final SqeFlags NONE;
+
+    private static final SqeFlags[] FLAGS = new SqeFlags[256];
+
+    static {
+        for (int i = 0; i < FLAGS.length; i++) {
+            FLAGS[i] = new SqeFlags((byte) i);
+        }
+        NONE = FLAGS[0];
+    }
+
+    private final byte value;
+
+    private SqeFlags(byte value) {
+        this.value = value;
+    }
+
+    public static SqeFlags of(SqeOptions... options) {
+        return valueOf(SqeOptions.combineOptions(options));
+    }
+
+    public SqeFlags with(SqeOptions option) {
+        return valueOf((byte) (value | option.value));
+    }
+
+    public boolean contains(SqeOptions option) {
+        return (value & option.value) == option.value;
+    }
+
+    public byte value() {
+        return value;
+    }
+
+    static SqeFlags valueOf(byte value) {
+        return FLAGS[value & 0xFF];
+    }
+
+    @Override
+    public String toString() {
+        return "SqeFlags[" + Integer.toBinaryString(value & 0xFF) + "]";
+    }
+}
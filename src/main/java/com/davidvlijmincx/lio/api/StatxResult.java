@@ -0,0 +1,48 @@
+package com.davidvlijmincx.lio.api;
+
+import java.lang.foreign.MemorySegment;
+import java.time.Instant;
+
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+/**
+ * Completion of a statx. When {@code result} is negative the statx failed and the other fields are 0 and
+ * {@code mtime} is null.
+ * {@snippet lang = c:
+ * struct statx {
+ *     __u32 stx_mask;                     // 0
+ *     __u32 stx_blksize;                  // 4
+ *     ...
+ *     __u64 stx_ino;                      // 32
+ *     __u64 stx_size;                     // 40
+ *     ...
+ *     struct statx_timestamp stx_mtime;   // 112, __s64 tv_sec, __u32 tv_nsec
+ *     ...
+ * }                                       // 256
+ *}
+ */
+public record StatxResult(long id, int result, long size, int blksize, Instant mtime, long inode) implements Result {
+
+    static final long SIZE = 256;
+    static final int STATX_BASIC_STATS = 0x7ff;
+
+    private static final long STX_BLKSIZE = 4;
+    private static final long STX_INO = 32;
+    private static final long STX_SIZE = 40;
+    private static final long STX_MTIME_SEC = 112;
+    private static final long STX_MTIME_NSEC = 120;
+
+    static StatxResult of(long id, int result, MemorySegment statx) {
+        if (result < 0) {
+            return new StatxResult(id, result, 0, 0, null, 0);
+        }
+        return new StatxResult(id, result, size(statx), statx.get(JAVA_INT, STX_BLKSIZE),
+                Instant.ofEpochSecond(statx.get(JAVA_LONG, STX_MTIME_SEC), Integer.toUnsignedLong(statx.get(JAVA_INT, STX_MTIME_NSEC))),
+                statx.get(JAVA_LONG, STX_INO));
+    }
+
+    static long size(MemorySegment statx) {
+        return statx.get(JAVA_LONG, STX_SIZE);
+    }
+}
@@ -0,0 +1,17 @@
+package com.davidvlijmincx.lio.api;
+
+/**
+ * Selects how a ring takes its submission queue entries, both engines fill them from Java.
+ */
+public enum SubmissionEngine {
+
+    /**
+     * Every entry is obtained with an {@code io_uring_get_sqe} downcall.
+     */
+    LIBURING,
+
+    /**
+     * Entries are taken from the mmap'd submission ring, only entering the kernel is a downcall.
+     */
+    JAVA
+}
@@ -0,0 +1,156 @@
+package com.davidvlijmincx.lio.api;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.VarHandle;
+
+import static java.lang.foreign.MemoryLayout.PathElement.groupElement;
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+
+/**
+ * Java view of the {@code io_uring_sq} part of a ring. It hands out entries the same way
+ * {@code io_uring_get_sqe} does, by bumping {@code sqe_tail} in the ring struct, so liburing's
+ * submit functions flush entries taken here and entries taken through liburing alike.
+ */
+final class SubmissionQueue {
+
+    private static final int IORING_SQ_NEED_WAKEUP = 1;
+    private static final int SQE_SHIFT = 6;
+
+    private static final long KHEAD = sqOffset("khead");
+    private static final long KTAIL = sqOffset("ktail");
+    private static final long KFLAGS = sqOffset("kflags");
+    private static final long SQE_HEAD = sqOffset("sqe_head");
+    private static final long SQES = sqOffset("sqes");
+    private static final long SQE_TAIL = sqOffset("sqe_tail");
+    private static final long RING_MASK = sqOffset("ring_mask");
+    private static final long RING_ENTRIES = sqOffset("ring_entries");
+    private static final long RING_FLAGS = LibUringDispatcher.ring_layout.byteOffset(groupElement("flags"));
+
+    private static final VarHandle INT_HANDLE = JAVA_INT.varHandle();
+
+    private final MemorySegment ring;
+    private MemorySegment khead;
+    private MemorySegment ktail;
+    private MemorySegment kflags;
+    private MemorySegment sqes;
+    private int ringMask;
+    private int ringEntries;
+    private int sqeShift;
+    private long lastPrepared = -1;
+    private boolean polled;
+    private long submits;
+    private long enters;
+
+    SubmissionQueue(MemorySegment ring) {
+        this.ring = ring;
+    }
+
+    /**
+     * Reads the ring pointers, must be called once the ring is initialized.
+     */
+    void map() {
+        ringMask = ring.get(JAVA_INT, RING_MASK);
+        ringEntries = ring.get(JAVA_INT, RING_ENTRIES);
+        int ringFlags = ring.get(JAVA_INT, RING_FLAGS);
+        sqeShift = (ringFlags & IoUringOptions.IORING_SETUP_SQE128.value) != 0 ? SQE_SHIFT + 1 : SQE_SHIFT;
+        polled = (ringFlags & IoUringOptions.IORING_SETUP_SQPOLL.value) != 0;
+        khead = ring.get(ADDRESS, KHEAD).reinterpret(JAVA_INT.byteSize());
+        ktail = ring.get(ADDRESS, KTAIL).reinterpret(JAVA_INT.byteSize());
+        kflags = ring.get(ADDRESS, KFLAGS).reinterpret(JAVA_INT.byteSize());
+        sqes = ring.get(ADDRESS, SQES).reinterpret((long) ringEntries << sqeShift);
+    }
+
+    /**
+     * Takes the next free entry and returns its byte offset in {@link #sqes()}, or -1 when the queue is full.
+     */
+    long next() {
+        int head = (int) INT_HANDLE.getAcquire(khead, 0L);
+        int tail = ring.get(JAVA_INT, SQE_TAIL);
+
+        if (Integer.compareUnsigned(tail - head, ringEntries) >= 0) {
+            return -1;
+        }
+
+        ring.set(JAVA_INT, SQE_TAIL, tail + 1);
+        return (long) (tail & ringMask) << sqeShift;
+    }
+
+    /**
+     * Number of entries that can still be taken before the queue is full.
+     */
+    int space() {
+        int head = (int) INT_HANDLE.getAcquire(khead, 0L);
+        return ringEntries - (ring.get(JAVA_INT, SQE_TAIL) - head);
+    }
+
+    /**
+     * Number of entries that were taken but not submitted yet.
+     */
+    int unsubmitted() {
+        return ring.get(JAVA_INT, SQE_TAIL) - ring.get(JAVA_INT, SQE_HEAD);
+    }
+
+    int capacity() {
+        return ringEntries;
+    }
+
+    /**
+     * Offset of the entry that was prepared last and not submitted yet, or -1.
+     */
+    long lastPrepared() {
+        return lastPrepared;
+    }
+
+    void lastPrepared(long sqe) {
+        lastPrepared = sqe;
+    }
+
+    /**
+     * Whether a kernel thread polls this queue, see {@link IoUringOptions#IORING_SETUP_SQPOLL}.
+     */
+    boolean polled() {
+        return polled;
+    }
+
+    /**
+     * Publishes the entries taken since the last flush to the kernel, the same way liburing's
+     * {@code __io_uring_flush_sq} does, and returns how many entries the kernel has not consumed yet.
+     */
+    int flush() {
+        int tail = ring.get(JAVA_INT, SQE_TAIL);
+        if (ring.get(JAVA_INT, SQE_HEAD) != tail) {
+            ring.set(JAVA_INT, SQE_HEAD, tail);
+            INT_HANDLE.setRelease(ktail, 0L, tail);
+        }
+        return tail - (int) INT_HANDLE.getAcquire(khead, 0L);
+    }
+
+    /**
+     * Whether the kernel submission thread went idle and has to be woken up to see new entries.
+     */
+    boolean needsWakeup() {
+        // orders the tail store of flush() before the flag load, the SQ thread does the reverse before it sleeps
+        VarHandle.fullFence();
+        return ((int) INT_HANDLE.getVolatile(kflags, 0L) & IORING_SQ_NEED_WAKEUP) != 0;
+    }
+
+    void countSubmit(boolean entered) {
+        submits++;
+        if (entered) {
+            enters++;
+        }
+    }
+
+    SubmitStats stats() {
+        return new SubmitStats(submits, enters);
+    }
+
+    MemorySegment sqes() {
+        return sqes;
+    }
+
+    private static long sqOffset(String field) {
+        return LibUringDispatcher.ring_layout.byteOffset(groupElement("sq"), groupElement(field));
+    }
+}
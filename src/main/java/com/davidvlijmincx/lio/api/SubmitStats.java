@@ -0,0 +1,14 @@
+package com.davidvlijmincx.lio.api;
+
+/**
+ * Counts the submits of a ring and how many of them had to enter the kernel.
+ *
+ * @param submits number of times the ring was submitted
+ * @param enters  number of those submits that called {@code io_uring_enter}
+ */
+public record SubmitStats(long submits, long enters) {
+
+    public long entersAvoided() {
+        return submits - enters;
+    }
+}
@@ -0,0 +1,25 @@
+package com.davidvlijmincx.lio.api;
+
+/**
+ * Flags of {@code sync_file_range}, see {@link JUring#prepareSyncFileRange(FileDescriptor, long, int, int, SqeOptions...)}.
+ */
+public enum SyncFileRangeFlags {
+
+    SYNC_FILE_RANGE_WAIT_BEFORE(1),     // 0x01
+    SYNC_FILE_RANGE_WRITE(1 << 1),      // 0x02
+    SYNC_FILE_RANGE_WAIT_AFTER(1 << 2); // 0x04
+
+    final int value;
+
+    SyncFileRangeFlags(int value) {
+        this.value = value;
+    }
+
+    public static int of(SyncFileRangeFlags... options) {
+        int combinedFlags = 0;
+        for (SyncFileRangeFlags b : options) {
+            combinedFlags |= b.value;
+        }
+        return combinedFlags;
+    }
+}
@@ -0,0 +1,13 @@
+package com.davidvlijmincx.lio.api;
+
+/**
+ * Completion of a timeout, {@code result} is {@code -ETIME} when the timeout expired.
+ */
+public record TimeoutResult(long id, int result) implements Result {
+
+    static final int ETIME = 62;
+
+    public boolean expired() {
+        return result == -ETIME;
+    }
+}
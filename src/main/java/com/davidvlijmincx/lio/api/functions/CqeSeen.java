@@ -1,7 +0,0 @@
-package com.davidvlijmincx.lio.api.functions;
-
-import java.lang.foreign.MemorySegment;
-
-public interface CqeSeen {
-    void cqeSeen(MemorySegment ring, MemorySegment cqePointer);
-}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.davidvlijmincx.lio.api.functions;
+
+import java.lang.foreign.MemorySegment;
+
+public interface Enter {
+    int enter(int ringFd, int toSubmit, int minComplete, int flags, MemorySegment sig);
+}
@@ -0,0 +1,5 @@
+package com.davidvlijmincx.lio.api.functions;
+
+public interface Eventfd {
+    int eventfd(int initval, int flags);
+}
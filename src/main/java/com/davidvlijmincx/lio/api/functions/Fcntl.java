@@ -0,0 +1,6 @@
+package com.davidvlijmincx.lio.api.functions;
+
+public interface Fcntl {
+
+    int fcntl(int fd, int cmd, int arg);
+}
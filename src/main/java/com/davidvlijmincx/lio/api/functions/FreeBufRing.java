@@ -0,0 +1,7 @@
+package com.davidvlijmincx.lio.api.functions;
+
+import java.lang.foreign.MemorySegment;
+
+public interface FreeBufRing {
+    int freeBufRing(MemorySegment ring, MemorySegment bufRing, int entries, int groupId);
+}
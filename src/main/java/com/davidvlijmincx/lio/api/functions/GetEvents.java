@@ -2,6 +2,6 @@ package com.davidvlijmincx.lio.api.functions;
 
 import java.lang.foreign.MemorySegment;
 
-public interface CqAdvance {
-    void peekBatchCqe(MemorySegment ring, int nr);
-}
\ No newline at end of file
+public interface GetEvents {
+    int getEvents(MemorySegment ring);
+}
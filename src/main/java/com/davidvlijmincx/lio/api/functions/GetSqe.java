@@ -4,5 +4,8 @@ import java.lang.foreign.MemorySegment;
 
 public interface GetSqe {
 
-    MemorySegment getSqe(MemorySegment ring);
+    /**
+     * The address of the sqe, or 0 when the queue is full. A long does not allocate a segment for every sqe.
+     */
+    long getSqe(MemorySegment ring);
 }
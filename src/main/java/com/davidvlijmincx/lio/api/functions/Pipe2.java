@@ -2,7 +2,7 @@ package com.davidvlijmincx.lio.api.functions;
 
 import java.lang.foreign.MemorySegment;
 
-public interface SetSqeFlag {
+public interface Pipe2 {
 
-    void setSqeFlag(MemorySegment sqe, byte flag);
+    int pipe2(MemorySegment fds, int flags);
 }
@@ -2,7 +2,6 @@ package com.davidvlijmincx.lio.api.functions;
 
 import java.lang.foreign.MemorySegment;
 
-public interface PrepareClose {
-
-    void prepareClose(MemorySegment sqe, int fd);
+public interface Read {
+    long read(int fd, MemorySegment buffer, long count);
 }
@@ -0,0 +1,7 @@
+package com.davidvlijmincx.lio.api.functions;
+
+import java.lang.foreign.MemorySegment;
+
+public interface RegisterEventfd {
+    int registerEventfd(MemorySegment ring, int fd);
+}
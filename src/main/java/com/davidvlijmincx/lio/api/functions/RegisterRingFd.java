@@ -2,6 +2,6 @@ package com.davidvlijmincx.lio.api.functions;
 
 import java.lang.foreign.MemorySegment;
 
-public interface SqeSetData {
-    void sqeSetData(MemorySegment sqe, long userData);
-}
\ No newline at end of file
+public interface RegisterRingFd {
+    int registerRingFd(MemorySegment ring);
+}
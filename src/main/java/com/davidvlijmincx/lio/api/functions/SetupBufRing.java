@@ -0,0 +1,7 @@
+package com.davidvlijmincx.lio.api.functions;
+
+import java.lang.foreign.MemorySegment;
+
+public interface SetupBufRing {
+    MemorySegment setupBufRing(MemorySegment ring, int entries, int groupId, int flags, MemorySegment ret);
+}
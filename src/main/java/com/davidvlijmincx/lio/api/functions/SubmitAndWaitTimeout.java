@@ -0,0 +1,7 @@
+package com.davidvlijmincx.lio.api.functions;
+
+import java.lang.foreign.MemorySegment;
+
+public interface SubmitAndWaitTimeout {
+    int submitAndWaitTimeout(MemorySegment ring, MemorySegment cqePtrPtr, int waitNr, MemorySegment timespec, MemorySegment sigmask);
+}
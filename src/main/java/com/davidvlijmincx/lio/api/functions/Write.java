@@ -0,0 +1,7 @@
+package com.davidvlijmincx.lio.api.functions;
+
+import java.lang.foreign.MemorySegment;
+
+public interface Write {
+    long write(int fd, MemorySegment buffer, long count);
+}
@@ -6,8 +6,6 @@ import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
 
-import java.time.Duration;
-
 import static com.davidvlijmincx.lio.api.IoUringOptions.IORING_SETUP_SINGLE_ISSUER;
 
 @State(Scope.Thread)
@@ -17,7 +15,7 @@ public class ExecutionPlanBlocking {
 
     @Setup
     public void setup() {
-        jUringBlocking = new JUringBlocking(2500, Duration.ofMillis(1), IORING_SETUP_SINGLE_ISSUER);
+        jUringBlocking = new JUringBlocking(2500, IORING_SETUP_SINGLE_ISSUER);
 
     }
 
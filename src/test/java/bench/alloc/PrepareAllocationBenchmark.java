@@ -0,0 +1,104 @@
+package bench.alloc;
+
+import com.davidvlijmincx.lio.api.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static com.davidvlijmincx.lio.api.IoUringOptions.IORING_SETUP_SINGLE_ISSUER;
+
+/*
+Allocation regression check for the steady state prepare, submit and reap cycle of a read into a caller owned
+buffer with precomputed SqeFlags, with both submission engines. Running main fails when gc.alloc.rate.norm is
+1 B/op or more.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {
+        "--enable-native-access=ALL-UNNAMED",
+})
+@Threads(1)
+@State(Scope.Thread)
+public class PrepareAllocationBenchmark {
+
+    private static final int READ_SIZE = 512;
+    private static final SqeFlags FLAGS = SqeFlags.NONE;
+
+    @Param({"LIBURING", "JAVA"})
+    public SubmissionEngine engine;
+
+    private JUring jUring;
+    private FileDescriptor fd;
+    private Path file;
+    private Arena arena;
+    private MemorySegment buffer;
+    private final CompletionHandler handler = (id, result, flags) -> {
+        if (result < 0) {
+            throw new IllegalStateException("Read failed: " + result);
+        }
+    };
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(PrepareAllocationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        Collection<RunResult> results = new Runner(opt).run();
+        for (RunResult runResult : results) {
+            Result<?> allocated = runResult.getSecondaryResults().get("gc.alloc.rate.norm");
+            // the profiler reports fractions of a byte per op from allocations outside the measured path
+            if (allocated == null || allocated.getScore() >= 1.0) {
+                throw new AssertionError("Prepare path allocates with " + runResult.getParams().getParam("engine")
+                        + ": " + (allocated == null ? "no gc.alloc.rate.norm result" : allocated.getScore() + " B/op"));
+            }
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("juring-alloc", ".bin");
+        Files.write(file, new byte[READ_SIZE]);
+
+        jUring = new JUring(8, engine, IORING_SETUP_SINGLE_ISSUER);
+        fd = new FileDescriptor(file.toString(), LinuxOpenOptions.READ, 0);
+        jUring.registerFiles(fd);
+
+        arena = Arena.ofShared();
+        buffer = arena.allocate(READ_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fd.close();
+        jUring.close();
+        arena.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long prepareSubmitReap() {
+        long id = jUring.prepareRead(0, buffer, 0, FLAGS);
+        jUring.submit();
+
+        while (jUring.reapCompletions(handler, 1) == 0) {
+            Thread.onSpinWait();
+        }
+        return id;
+    }
+}
@@ -0,0 +1,134 @@
+package bench.copy;
+
+import com.davidvlijmincx.lio.api.FileDescriptor;
+import com.davidvlijmincx.lio.api.JUring;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.davidvlijmincx.lio.api.LinuxOpenOptions.READ;
+import static com.davidvlijmincx.lio.api.LinuxOpenOptions.WRITE;
+
+/*
+Copies a whole file. JUring either splices it through pipes or pipelines read-fixed linked to write-fixed over
+registered buffers, with a number of chunks in flight. Files.copy and FileChannel.transferTo let the JDK pick its own
+copy path. The copied counter reports the throughput in bytes per second.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {
+        "--enable-native-access=ALL-UNNAMED",
+})
+@Threads(1)
+@State(Scope.Thread)
+public class CopyBenchmark {
+
+    @Param({"268435456"})
+    public long fileSize;
+
+    @Param({"1048576"})
+    public int chunkSize;
+
+    @Param({"1", "4", "16"})
+    public int chunksInFlight;
+
+    private JUring jUring;
+    private Path source;
+    private Path target;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(CopyBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        source = Files.createTempFile("juring-copy-source", ".bin");
+        target = Files.createTempFile("juring-copy-target", ".bin");
+
+        byte[] block = new byte[1 << 20];
+        new Random(42).nextBytes(block);
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.WRITE)) {
+            for (long written = 0; written < fileSize; written += block.length) {
+                channel.write(ByteBuffer.wrap(block, 0, (int) Math.min(block.length, fileSize - written)));
+            }
+        }
+
+        jUring = new JUring(chunksInFlight * 2);
+        jUring.registerBuffers(chunkSize, chunksInFlight);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        jUring.close();
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public long juringSpliceCopy(Copied copied) throws IOException {
+        try (FileDescriptor in = new FileDescriptor(source.toString(), READ, 0);
+             FileDescriptor out = new FileDescriptor(target.toString(), WRITE, 0)) {
+            return copied.add(jUring.copy(in, out, 0, fileSize, chunkSize, chunksInFlight));
+        }
+    }
+
+    @Benchmark
+    public long juringFixedBufferCopy(Copied copied) throws IOException {
+        try (FileDescriptor in = new FileDescriptor(source.toString(), READ, 0);
+             FileDescriptor out = new FileDescriptor(target.toString(), WRITE, 0)) {
+            return copied.add(jUring.copyFixed(in, out, 0, fileSize, 0, chunksInFlight));
+        }
+    }
+
+    @Benchmark
+    public long filesCopy(Copied copied) throws IOException {
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        return copied.add(fileSize);
+    }
+
+    @Benchmark
+    public long fileChannelTransferTo(Copied copied) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            long transferred = 0;
+            while (transferred < fileSize) {
+                transferred += in.transferTo(transferred, fileSize - transferred, out);
+            }
+            return copied.add(transferred);
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Copied {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+
+        long add(long copied) {
+            bytes += copied;
+            return copied;
+        }
+    }
+}
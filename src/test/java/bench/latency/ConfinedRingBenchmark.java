@@ -0,0 +1,124 @@
+package bench.latency;
+
+import com.davidvlijmincx.lio.api.FileDescriptor;
+import com.davidvlijmincx.lio.api.JUring;
+import com.davidvlijmincx.lio.api.ReadResult;
+import com.davidvlijmincx.lio.api.Result;
+import com.davidvlijmincx.lio.api.RingConfig;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.davidvlijmincx.lio.api.IoUringOptions.IORING_SETUP_SINGLE_ISSUER;
+import static com.davidvlijmincx.lio.api.LinuxOpenOptions.READ;
+
+/*
+Latency of a batch of random reads on a ring that runs completion work whenever the kernel interrupts the thread,
+against a thread confined ring that defers it until the thread waits. Sample mode reports the percentiles, p99 is
+where the interruptions show. randomReadsSubmitAndWait submits and waits with one call instead of two.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {
+        "--enable-native-access=ALL-UNNAMED",
+})
+@Threads(1)
+@State(Scope.Thread)
+public class ConfinedRingBenchmark {
+
+    private static final int READ_SIZE = 4096;
+    private static final long FILE_SIZE = 64L * 1024 * 1024;
+
+    @Param({"false", "true"})
+    public boolean threadConfined;
+
+    @Param({"1", "16"})
+    public int batchSize;
+
+    private JUring jUring;
+    private Path file;
+    private FileDescriptor fd;
+    private Random random;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ConfinedRingBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        RingConfig.Builder config = RingConfig.builder(64);
+        if (threadConfined) {
+            config.threadConfined();
+        } else {
+            config.flags(IORING_SETUP_SINGLE_ISSUER);
+        }
+        jUring = new JUring(config.build());
+
+        file = Files.createTempFile("confined", ".bin");
+        byte[] content = new byte[(int) FILE_SIZE];
+        new Random(42).nextBytes(content);
+        Files.write(file, content);
+
+        fd = new FileDescriptor(file.toString(), READ, 0);
+        random = new Random(7);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fd.close();
+        jUring.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void randomReads(Blackhole blackhole) {
+        for (int i = 0; i < batchSize; i++) {
+            long offset = (long) random.nextInt((int) (FILE_SIZE / READ_SIZE)) * READ_SIZE;
+            jUring.prepareRead(fd, READ_SIZE, offset);
+        }
+        jUring.submit();
+
+        int completed = 0;
+        while (completed < batchSize) {
+            List<Result> results = jUring.waitForBatchResult(batchSize - completed);
+            for (Result result : results) {
+                if (result instanceof ReadResult r) {
+                    blackhole.consume(r.result());
+                    r.freeBuffer();
+                }
+            }
+            completed += results.size();
+        }
+    }
+
+    @Benchmark
+    public void randomReadsSubmitAndWait(Blackhole blackhole) {
+        for (int i = 0; i < batchSize; i++) {
+            long offset = (long) random.nextInt((int) (FILE_SIZE / READ_SIZE)) * READ_SIZE;
+            jUring.prepareRead(fd, READ_SIZE, offset);
+        }
+
+        for (Result result : jUring.submitAndWait(batchSize)) {
+            if (result instanceof ReadResult r) {
+                blackhole.consume(r.result());
+                r.freeBuffer();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package bench.log;
+
+import com.davidvlijmincx.lio.api.LogWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/*
+Durable appends from many threads. The LogWriter coalesces the appends that arrive while a group is being written
+and synced into the next group, the FileChannel baseline writes and forces every append on its own.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = {
+        "--enable-native-access=ALL-UNNAMED",
+})
+@Threads(16)
+public class GroupCommitBenchmark {
+
+    private static final int RECORD_SIZE = 128;
+
+    @State(Scope.Benchmark)
+    public static class GroupCommitLog {
+
+        @Param({"65536"})
+        public int groupSize;
+
+        @Param({"2"})
+        public int groupsInFlight;
+
+        LogWriter log;
+        Path file;
+
+        @Setup
+        public void setup() throws IOException {
+            file = Files.createTempFile("juring-group-commit", ".log");
+            log = new LogWriter(file, groupSize, groupsInFlight);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            LogWriter.Metrics metrics = log.metrics();
+            log.close();
+            Files.deleteIfExists(file);
+            System.out.printf("%nGroups: %d, average batch: %.1f, max batch: %d, average commit: %s, max commit: %s%n",
+                    metrics.groups(), metrics.averageBatchSize(), metrics.maxBatchSize(),
+                    metrics.averageCommitLatency(), metrics.maxCommitTime());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ForcedChannel {
+
+        FileChannel channel;
+        Path file;
+
+        @Setup
+        public void setup() throws IOException {
+            file = Files.createTempFile("juring-force", ".log");
+            channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            channel.close();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Record {
+        final byte[] bytes = new byte[RECORD_SIZE];
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(GroupCommitBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Benchmark
+    public long logWriterAppend(GroupCommitLog log, Record record) {
+        return log.log.append(record.bytes).join();
+    }
+
+    @Benchmark
+    public int fileChannelWriteAndForce(ForcedChannel channel, Record record) throws IOException {
+        record.buffer.clear();
+        int written = channel.channel.write(record.buffer);
+        channel.channel.force(false);
+        return written;
+    }
+}
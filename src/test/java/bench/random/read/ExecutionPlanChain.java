@@ -0,0 +1,52 @@
+package bench.random.read;
+
+import com.davidvlijmincx.lio.api.BatchPolicy;
+import com.davidvlijmincx.lio.api.JUring;
+import com.davidvlijmincx.lio.api.RingConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+
+import static com.davidvlijmincx.lio.api.IoUringOptions.*;
+
+@State(Scope.Thread)
+public class ExecutionPlanChain {
+
+    public static final int MAX_IN_FLIGHT = 256;
+
+    @Param({"false", "true"})
+    public boolean sqPoll;
+
+    @Param({"false", "true"})
+    public boolean registerRingFd;
+
+    // adaptive leaves submitting to the batch policy of the ring instead of submitting every 64 requests
+    @Param({"false", "true"})
+    public boolean adaptiveBatching;
+
+    public JUring jUring;
+
+    @Setup
+    public void setup() {
+        RingConfig.Builder config = RingConfig.builder(2500).flags(IORING_SETUP_SINGLE_ISSUER);
+        if (sqPoll) {
+            config.sqPoll(Duration.ofMillis(100));
+        }
+        if (registerRingFd) {
+            config.registerRingFd();
+        }
+        if (adaptiveBatching) {
+            config.batchPolicy(BatchPolicy.adaptive(8, MAX_IN_FLIGHT, Duration.ofNanos(50_000)));
+        }
+        jUring = new JUring(config.build());
+
+        // every chain in flight gets its own direct descriptor slot and registered buffer
+        jUring.registerFilesSparse(MAX_IN_FLIGHT);
+        jUring.registerBuffers(TaskCreator.bufferSize, MAX_IN_FLIGHT);
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+        jUring.close();
+    }
+}
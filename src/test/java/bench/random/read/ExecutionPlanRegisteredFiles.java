@@ -3,6 +3,7 @@ package bench.random.read;
 import com.davidvlijmincx.lio.api.FileDescriptor;
 import com.davidvlijmincx.lio.api.JUring;
 import com.davidvlijmincx.lio.api.LinuxOpenOptions;
+import com.davidvlijmincx.lio.api.SubmissionEngine;
 import org.openjdk.jmh.annotations.*;
 
 import java.util.ArrayList;
@@ -15,13 +16,16 @@ import static com.davidvlijmincx.lio.api.IoUringOptions.*;
 @State(Scope.Thread)
 public class ExecutionPlanRegisteredFiles {
 
+    @Param({"LIBURING", "JAVA"})
+    public SubmissionEngine engine = SubmissionEngine.LIBURING;
+
     public JUring jUring;
     public Map<String, Integer> registeredFileIndices;
     private List<FileDescriptor> openFileDescriptors;
 
     @Setup
     public void setup(TaskCreator taskCreator) {
-        jUring = new JUring(2500, IORING_SETUP_SINGLE_ISSUER,IORING_SETUP_DEFER_TASKRUN, IORING_SETUP_COOP_TASKRUN);
+        jUring = new JUring(2500, engine, IORING_SETUP_SINGLE_ISSUER,IORING_SETUP_DEFER_TASKRUN, IORING_SETUP_COOP_TASKRUN);
         registeredFileIndices = new HashMap<>();
         openFileDescriptors = new ArrayList<>();
 
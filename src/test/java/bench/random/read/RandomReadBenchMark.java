@@ -16,6 +16,7 @@ import java.lang.foreign.MemorySegment;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -34,6 +35,8 @@ import java.util.concurrent.TimeUnit;
 @Threads(1)
 public class RandomReadBenchMark {
 
+    private static final int O_RDONLY = 0;
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(RandomReadBenchMark.class.getSimpleName())
@@ -174,6 +177,60 @@ public class RandomReadBenchMark {
         }
     }
 
+    @Benchmark
+    public void juringOpenReadCloseChain(Blackhole blackhole, ExecutionPlanChain plan, TaskCreator randomReadTaskCreator, Submits submits) {
+        final var jUring = plan.jUring;
+        final SubmitStats before = jUring.submitStats();
+        final var readTasks = randomReadTaskCreator.readTasks;
+        final int maxInFlight = ExecutionPlanChain.MAX_IN_FLIGHT;
+
+        // a slot is both the direct descriptor and the registered buffer of a chain in flight
+        final ArrayDeque<Integer> freeSlots = new ArrayDeque<>(maxInFlight);
+        final Map<Long, Integer> slotsInUse = new HashMap<>(maxInFlight * 2);
+        for (int i = 0; i < maxInFlight; i++) {
+            freeSlots.push(i);
+        }
+
+        int submitted = 0;
+        int processed = 0;
+        int taskIndex = 0;
+
+        while (processed < readTasks.length) {
+            while (!freeSlots.isEmpty() && taskIndex < readTasks.length) {
+                Task task = readTasks[taskIndex];
+                int slot = freeSlots.pop();
+
+                long id = jUring.chain()
+                        .openDirect(task.pathAsString(), O_RDONLY, 0, slot)
+                        .readFixed(slot, task.bufferSize(), task.offset(), slot)
+                        .closeDirect(slot)
+                        .skipIntermediateCompletions()
+                        .prepare();
+                slotsInUse.put(id, slot);
+                submitted++;
+                taskIndex++;
+
+                if (!plan.adaptiveBatching && submitted % 64 == 0) {
+                    jUring.submit();
+                }
+            }
+
+            if (!plan.adaptiveBatching && submitted > processed) {
+                jUring.submit();
+            }
+
+            List<Result> results = jUring.peekForBatchResult(64);
+            for (Result result : results) {
+                if (result instanceof ChainResult r) {
+                    blackhole.consume(r.result());
+                    freeSlots.push(slotsInUse.remove(r.id()));
+                }
+            }
+            processed += results.size();
+        }
+        submits.add(before, jUring.submitStats());
+    }
+
 //    @Benchmark
     public void fileChannelOpenReadClose(Blackhole blackhole, TaskCreator randomReadTaskCreator) throws Throwable {
         Task[] readTasks = randomReadTaskCreator.readTasks;
@@ -247,6 +304,25 @@ public class RandomReadBenchMark {
         }
     }
 
+    /**
+     * Reports per invocation how many submits entered the kernel and how many did not have to.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Submits {
+        public long enters;
+        public long entersAvoided;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            enters = 0;
+            entersAvoided = 0;
+        }
 
+        void add(SubmitStats before, SubmitStats after) {
+            enters += after.enters() - before.enters();
+            entersAvoided += after.entersAvoided() - before.entersAvoided();
+        }
+    }
 }
 
@@ -0,0 +1,63 @@
+package bench.reap;
+
+import com.davidvlijmincx.lio.api.FileDescriptor;
+import com.davidvlijmincx.lio.api.JUring;
+import com.davidvlijmincx.lio.api.LinuxOpenOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.davidvlijmincx.lio.api.IoUringOptions.IORING_SETUP_SINGLE_ISSUER;
+
+/*
+Every invocation submits a full ring of reads into caller owned buffers before the benchmark method runs,
+so the benchmark methods only measure reaping.
+ */
+@State(Scope.Thread)
+public class ExecutionPlanReap {
+
+    public static final int QUEUE_DEPTH = 256;
+    public static final int READ_SIZE = 512;
+
+    public JUring jUring;
+    private FileDescriptor fd;
+    private Path file;
+    private Arena arena;
+    private MemorySegment[] buffers;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("juring-reap", ".bin");
+        Files.write(file, new byte[QUEUE_DEPTH * READ_SIZE]);
+
+        jUring = new JUring(QUEUE_DEPTH, IORING_SETUP_SINGLE_ISSUER);
+        fd = new FileDescriptor(file.toString(), LinuxOpenOptions.READ, 0);
+        jUring.registerFiles(fd);
+
+        arena = Arena.ofShared();
+        buffers = new MemorySegment[QUEUE_DEPTH];
+        for (int i = 0; i < QUEUE_DEPTH; i++) {
+            buffers[i] = arena.allocate(READ_SIZE);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareReads() {
+        for (int i = 0; i < QUEUE_DEPTH; i++) {
+            jUring.prepareRead(0, buffers[i], (long) i * READ_SIZE);
+        }
+        jUring.submit();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fd.close();
+        jUring.close();
+        arena.close();
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,93 @@
+package bench.reap;
+
+import com.davidvlijmincx.lio.api.CompletionHandler;
+import com.davidvlijmincx.lio.api.ReadResult;
+import com.davidvlijmincx.lio.api.Result;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static bench.reap.ExecutionPlanReap.QUEUE_DEPTH;
+import static bench.reap.ExecutionPlanReap.READ_SIZE;
+
+/*
+Compares the allocation rate of reaping through the callback api with the list api. Running main fails when a read
+did not read a whole buffer or when gc.alloc.rate.norm of the callback api is 1 B/op or more.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(QUEUE_DEPTH)
+@Fork(value = 1, jvmArgs = {
+        "--enable-native-access=ALL-UNNAMED",
+})
+@Threads(1)
+public class ReapCompletionsBenchmark {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ReapCompletionsBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .shouldFailOnError(true)
+                .build();
+
+        Collection<RunResult> results = new Runner(opt).run();
+        for (RunResult runResult : results) {
+            if (!runResult.getParams().getBenchmark().endsWith(".reapCompletions")) {
+                continue;
+            }
+            org.openjdk.jmh.results.Result<?> allocated = runResult.getSecondaryResults().get("gc.alloc.rate.norm");
+            // the profiler reports fractions of a byte per op from allocations outside the measured path
+            if (allocated == null || allocated.getScore() >= 1.0) {
+                throw new AssertionError("Reaping through the callback api allocates: "
+                        + (allocated == null ? "no gc.alloc.rate.norm result" : allocated.getScore() + " B/op"));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Handler implements CompletionHandler {
+
+        long bytesRead;
+
+        @Override
+        public void onCompletion(long id, int result, int flags) {
+            if (result != READ_SIZE) {
+                throw new IllegalStateException("Read returned " + result);
+            }
+            bytesRead += result;
+        }
+    }
+
+    @Benchmark
+    public long reapCompletions(Handler handler, ExecutionPlanReap plan) {
+        int processed = 0;
+        while (processed < QUEUE_DEPTH) {
+            processed += plan.jUring.reapCompletions(handler, QUEUE_DEPTH);
+        }
+        return handler.bytesRead;
+    }
+
+    @Benchmark
+    public void peekForBatchResult(Blackhole blackhole, ExecutionPlanReap plan) {
+        int processed = 0;
+        while (processed < QUEUE_DEPTH) {
+            List<Result> results = plan.jUring.peekForBatchResult(QUEUE_DEPTH);
+            for (Result result : results) {
+                if (((ReadResult) result).result() != READ_SIZE) {
+                    throw new IllegalStateException("Read returned " + ((ReadResult) result).result());
+                }
+            }
+            blackhole.consume(results);
+            processed += results.size();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package bench.slots;
+
+import com.davidvlijmincx.lio.api.FileDescriptor;
+import com.davidvlijmincx.lio.api.JUring;
+import com.davidvlijmincx.lio.api.LinuxOpenOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.davidvlijmincx.lio.api.IoUringOptions.IORING_SETUP_SINGLE_ISSUER;
+
+@State(Scope.Thread)
+public class ExecutionPlanQueueDepth256 {
+
+    public static final int QUEUE_DEPTH = 256;
+    public static final int FILE_SIZE = 1 << 20;
+
+    // the first iteration pays for the JIT and the allocator, after that VmRSS has to stay flat
+    private static final long MAX_RSS_GROWTH_KB = 32 * 1024;
+
+    public JUring jUring;
+    private long rssAfterFirstIterationKb = -1;
+    private FileDescriptor fd;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("juring-slots", ".bin");
+        Files.write(file, new byte[FILE_SIZE]);
+
+        jUring = new JUring(QUEUE_DEPTH, IORING_SETUP_SINGLE_ISSUER);
+        fd = new FileDescriptor(file.toString(), LinuxOpenOptions.READ, 0);
+        jUring.registerFiles(fd);
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkRss() {
+        long rss = residentSetSizeKb();
+        if (rss < 0 || rssAfterFirstIterationKb < 0) {
+            rssAfterFirstIterationKb = rss;
+            return;
+        }
+        if (rss - rssAfterFirstIterationKb > MAX_RSS_GROWTH_KB) {
+            throw new IllegalStateException("VmRSS grew by " + (rss - rssAfterFirstIterationKb) + " kB since the first iteration");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fd.close();
+        jUring.close();
+        Files.deleteIfExists(file);
+    }
+
+    static long residentSetSizeKb() {
+        try {
+            return Files.readAllLines(Path.of("/proc/self/status")).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package bench.slots;
+
+import com.davidvlijmincx.lio.api.ReadResult;
+import com.davidvlijmincx.lio.api.Result;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static bench.slots.ExecutionPlanQueueDepth256.FILE_SIZE;
+import static bench.slots.ExecutionPlanQueueDepth256.QUEUE_DEPTH;
+
+/*
+Measures the prepare/complete cycle of 512 byte reads at queue depth 256. Running main fails when VmRSS grows by
+more than 32 MiB after the first iteration, before slot-indexed user_data it grew with every operation because the
+malloc'd user data was never freed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@OperationsPerInvocation(RequestSlotBenchmark.OPERATIONS)
+@Fork(value = 1, jvmArgs = {
+        "--enable-native-access=ALL-UNNAMED",
+})
+@Threads(1)
+public class RequestSlotBenchmark {
+
+    static final int OPERATIONS = 10_000;
+    private static final int READ_SIZE = 512;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(RequestSlotBenchmark.class.getSimpleName())
+                .shouldFailOnError(true)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+    @Benchmark
+    public void readsAtQueueDepth256(Blackhole blackhole, ExecutionPlanQueueDepth256 plan) {
+        final var jUring = plan.jUring;
+
+        int submitted = 0;
+        int processed = 0;
+
+        while (processed < OPERATIONS) {
+            while (submitted - processed < QUEUE_DEPTH && submitted < OPERATIONS) {
+                long offset = ((long) submitted * READ_SIZE) % FILE_SIZE;
+                jUring.prepareRead(0, READ_SIZE, offset);
+                submitted++;
+            }
+
+            jUring.submit();
+
+            List<Result> results = jUring.peekForBatchResult(QUEUE_DEPTH);
+            for (Result result : results) {
+                if (result instanceof ReadResult r) {
+                    blackhole.consume(r.result());
+                    r.freeBuffer();
+                }
+            }
+            processed += results.size();
+        }
+    }
+}
@@ -3,11 +3,17 @@ package com.davidvlijmincx.lio.api;
 import org.junit.jupiter.api.*;
 
 import java.io.IOException;
+import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.davidvlijmincx.lio.api.IoUringOptions.IORING_SETUP_SINGLE_ISSUER;
 import static com.davidvlijmincx.lio.api.LinuxOpenOptions.READ;
@@ -29,6 +35,56 @@ class JUringBlockingTest {
         jUringBlocking.close();
     }
 
+    @Test
+    void idlePollerWakesUpForCompletion() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (jUringBlocking.idleWaits() == 0) {
+            assertTrue(System.nanoTime() < deadline, "Poller never went idle");
+            Thread.onSpinWait();
+        }
+
+        try (FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            Future<ReadResult> future = jUringBlocking.prepareRead(fd, 14, 0);
+            jUringBlocking.submit();
+
+            ReadResult result = future.get(5, TimeUnit.SECONDS);
+            assertEquals(13, result.result());
+            result.freeBuffer();
+        }
+    }
+
+    @Test
+    void ringsThatOnlyPostCompletionsOnEnterAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new JUringBlocking(10, IORING_SETUP_SINGLE_ISSUER, IoUringOptions.IORING_SETUP_DEFER_TASKRUN));
+        assertThrows(IllegalArgumentException.class, () -> new JUringBlocking(10, IoUringOptions.IORING_SETUP_COOP_TASKRUN));
+    }
+
+    @Test
+    void statxOpenAndCloseWithDeadline() throws Exception {
+        Path path = Path.of("src/test/resources/read_file");
+
+        Future<StatxResult> statx = jUringBlocking.prepareStatx(path.toString(), Duration.ofSeconds(1));
+        jUringBlocking.submit();
+        StatxResult statxResult = statx.get(5, TimeUnit.SECONDS);
+        assertEquals(0, statxResult.result());
+        assertEquals(Files.size(path), statxResult.size());
+
+        Future<OpenResult> open = jUringBlocking.prepareOpen(path.toString(), READ.getValue(), 0, Duration.ofSeconds(1));
+        jUringBlocking.submit();
+        FileDescriptor fd = open.get(5, TimeUnit.SECONDS).fileDescriptor();
+        assertTrue(fd.getFd() >= 0);
+
+        Future<CloseResult> close = jUringBlocking.prepareClose(fd, Duration.ofSeconds(1));
+        jUringBlocking.submit();
+        assertEquals(0, close.get(5, TimeUnit.SECONDS).result());
+    }
+
+    @Test
+    void closeWakesIdlePoller() {
+        JUringBlocking idle = new JUringBlocking(10);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), idle::close);
+    }
+
     @Test
     void readFromFile() {
         try (FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
@@ -449,4 +505,160 @@ class JUringBlockingTest {
             assertEquals(input, writtenContent);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void writeAndSyncFile() throws IOException, ExecutionException, InterruptedException {
+        Path path = Path.of("src/test/resources/write_file");
+        Files.write(path, "Clean content : ".getBytes());
+
+        String input = "Hello, from Java";
+        var inputBytes = input.getBytes();
+
+        try (FileDescriptor fd = new FileDescriptor(path.toString(), WRITE, 0)) {
+            var write = jUringBlocking.prepareWrite(fd, inputBytes, 0);
+            jUringBlocking.submit();
+            assertEquals(inputBytes.length, write.get().result());
+
+            var fsync = jUringBlocking.prepareFsync(fd, true);
+            var syncRange = jUringBlocking.prepareSyncFileRange(fd, 0, inputBytes.length,
+                    SyncFileRangeFlags.of(SyncFileRangeFlags.SYNC_FILE_RANGE_WRITE, SyncFileRangeFlags.SYNC_FILE_RANGE_WAIT_AFTER));
+            jUringBlocking.submit();
+
+            assertEquals(0, fsync.get().result());
+            assertEquals(0, syncRange.get().result());
+        }
+    }
+
+    @Test
+    void preallocatePunchAndTruncateFile() throws IOException, ExecutionException, InterruptedException {
+        Path path = Path.of("src/test/resources/fallocate_file");
+        Files.write(path, new byte[0]);
+
+        try (FileDescriptor fd = new FileDescriptor(path.toString(), WRITE, 0)) {
+            var keepSize = jUringBlocking.prepareFallocate(fd, FallocateMode.of(FallocateMode.FALLOC_FL_KEEP_SIZE), 0, 1 << 20);
+            jUringBlocking.submit();
+            assertEquals(0, keepSize.get().result());
+            assertEquals(0, Files.size(path));
+
+            var allocate = jUringBlocking.prepareFallocate(fd, 0, 0, 8192);
+            jUringBlocking.submit();
+            assertEquals(0, allocate.get().result());
+            assertEquals(8192, Files.size(path));
+
+            var punchHole = jUringBlocking.prepareFallocate(fd,
+                    FallocateMode.of(FallocateMode.FALLOC_FL_PUNCH_HOLE, FallocateMode.FALLOC_FL_KEEP_SIZE), 0, 4096);
+            jUringBlocking.submit();
+            assertEquals(0, punchHole.get().result());
+            assertEquals(8192, Files.size(path));
+
+            var truncate = jUringBlocking.prepareFtruncate(fd, 100);
+            jUringBlocking.submit();
+            assertEquals(0, truncate.get().result());
+            assertEquals(100, Files.size(path));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void readAllReadsTheWholeFile() throws Exception {
+        Path path = Path.of("src/test/resources/read_file");
+        // the poller submits the read once the open completed, so the ring must allow submits from any thread
+        try (JUringBlocking ring = new JUringBlocking(10)) {
+            ring.registerFilesSparse(1);
+
+            ReadResult result = ring.readAll(path.toString(), 0).get(1, TimeUnit.SECONDS);
+            assertEquals(Files.size(path), result.result());
+            assertArrayEquals(Files.readAllBytes(path), result.buffer().toArray(JAVA_BYTE));
+            result.freeBuffer();
+        }
+    }
+
+    @Test
+    void readAllIsRejectedOnSingleIssuerRing() {
+        assertThrows(IllegalStateException.class, () -> jUringBlocking.readAll("src/test/resources/read_file", 0));
+    }
+
+    @Test
+    void resultOfRequestCancelledDuringDeliveryIsFreed() throws InterruptedException {
+        // the cancel is submitted from another thread, which a single issuer ring does not allow
+        try (JUringBlocking ring = new JUringBlocking(10)) {
+            for (int i = 0; i < 1000; i++) {
+                deliverWhileCancelling(ring);
+            }
+        }
+    }
+
+    private static void deliverWhileCancelling(JUringBlocking ring) throws InterruptedException {
+        AtomicInteger released = new AtomicInteger();
+        var request = ring.new CancellableRequest<PooledReadResult>(-1, true);
+        PooledReadResult result = new PooledReadResult(-1, MemorySegment.NULL, 0, 0, (buffer, flags) -> released.incrementAndGet());
+
+        CountDownLatch start = new CountDownLatch(1);
+        Thread canceller = Thread.ofPlatform().start(() -> {
+            awaitQuietly(start);
+            request.cancel(true);
+        });
+        Thread poller = Thread.ofPlatform().start(() -> {
+            awaitQuietly(start);
+            request.deliver(result);
+        });
+        start.countDown();
+        canceller.join();
+        poller.join();
+
+        // either the caller got the result, or nobody did and its buffer went back
+        assertEquals(request.isCancelled() ? 1 : 0, released.get());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void cancelledFutureCancelsTheRead() throws ExecutionException, InterruptedException, TimeoutException {
+        int[] pipe = NativeDispatcher.C.pipe(0);
+        try (FileDescriptor readEnd = new FileDescriptor(pipe[0]); FileDescriptor writeEnd = new FileDescriptor(pipe[1])) {
+            Future<ReadResult> stalled = jUringBlocking.prepareRead(readEnd, 16, 0);
+            jUringBlocking.submit();
+
+            assertTrue(stalled.cancel(true));
+            assertTrue(stalled.isCancelled());
+
+            // the read was found and cancelled in the ring
+            CancelResult cancel = ((JUringBlocking.CancellableRequest<ReadResult>) stalled).ringCancel().get(1, TimeUnit.SECONDS);
+            assertEquals(0, cancel.result());
+
+            // the poller freed the buffer of the read once its -ECANCELED completion came in
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            while (jUringBlocking.pendingRequests() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(0, jUringBlocking.pendingRequests());
+
+            // nothing is left waiting on the pipe, so the next read gets the bytes
+            try (Arena arena = Arena.ofConfined()) {
+                MemorySegment bytes = arena.allocate(4).copyFrom(MemorySegment.ofArray("ping".getBytes()));
+                assertEquals(4L, NativeDispatcher.C.write(writeEnd.getFd(), bytes));
+            }
+            Future<ReadResult> next = jUringBlocking.prepareRead(readEnd, 4, 0);
+            jUringBlocking.submit();
+            ReadResult result = next.get(1, TimeUnit.SECONDS);
+            assertEquals("ping", getString(result, result.result()));
+            result.freeBuffer();
+        }
+
+        try (FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            Future<ReadResult> read = jUringBlocking.prepareRead(fd, 14, 0);
+            jUringBlocking.submit();
+
+            ReadResult result = read.get();
+            assertEquals("Hello, World!", getString(result, result.result()));
+            result.freeBuffer();
+        }
+    }
+}
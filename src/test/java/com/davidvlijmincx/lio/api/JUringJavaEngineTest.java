@@ -0,0 +1,14 @@
+package com.davidvlijmincx.lio.api;
+
+import static com.davidvlijmincx.lio.api.IoUringOptions.IORING_SETUP_SINGLE_ISSUER;
+
+/*
+Runs the JUringTest suite against a ring that writes its submission queue entries from Java.
+ */
+class JUringJavaEngineTest extends JUringTest {
+
+    @Override
+    JUring createRing() {
+        return new JUring(10, SubmissionEngine.JAVA, IORING_SETUP_SINGLE_ISSUER);
+    }
+}
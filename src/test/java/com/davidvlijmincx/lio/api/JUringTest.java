@@ -3,21 +3,32 @@ package com.davidvlijmincx.lio.api;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.davidvlijmincx.lio.api.IoUringOptions.IORING_SETUP_SINGLE_ISSUER;
 import static com.davidvlijmincx.lio.api.LinuxOpenOptions.READ;
 import static com.davidvlijmincx.lio.api.LinuxOpenOptions.WRITE;
 import static java.lang.foreign.ValueLayout.JAVA_BYTE;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
 class JUringTest {
@@ -26,7 +37,11 @@ class JUringTest {
 
     @BeforeEach
     void setUp() {
-        jUring = new JUring(10, IORING_SETUP_SINGLE_ISSUER);
+        jUring = createRing();
+    }
+
+    JUring createRing() {
+        return new JUring(10, IORING_SETUP_SINGLE_ISSUER);
     }
 
     @AfterEach
@@ -36,7 +51,7 @@ class JUringTest {
 
     @Test
     void sharedWorkerRingCreation(){
-        var mainRing = new JUring(10, IORING_SETUP_SINGLE_ISSUER);
+        var mainRing = createRing();
 
         var sharedRing = mainRing.getSharedWorkerRing(10,IORING_SETUP_SINGLE_ISSUER);
 
@@ -115,6 +130,170 @@ class JUringTest {
 
     }
 
+    @Test
+    void requestSlotsAreReusedAcrossRounds() {
+        List<Long> ids = new ArrayList<>();
+
+        try(FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            // a ring of 10 has 20 request slots, so every round reuses slots of the previous one
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 10; i++) {
+                    ids.add(jUring.prepareRead(fd, 14, 0));
+                }
+                jUring.submit();
+
+                for (int i = 0; i < 10; i++) {
+                    Result result = jUring.waitForResult();
+                    if (result instanceof ReadResult readResult) {
+                        assertEquals(13, readResult.result());
+                        readResult.freeBuffer();
+                    } else {
+                        fail("Result is not a ReadResult");
+                    }
+                }
+            }
+        }
+
+        assertThat(ids).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void reapCompletionsWithCallerOwnedBuffer() {
+        List<Long> completedIds = new ArrayList<>();
+
+        try(FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0);
+            Arena arena = Arena.ofConfined()) {
+            MemorySegment buffer = arena.allocate(14);
+
+            long id = jUring.prepareRead(fd, buffer, 0);
+            jUring.submit();
+
+            while (completedIds.isEmpty()) {
+                jUring.reapCompletions((completedId, result, flags) -> {
+                    assertEquals(13, result);
+                    completedIds.add(completedId);
+                }, 10);
+            }
+
+            assertThat(completedIds).containsExactly(id);
+            assertEquals("Hello, World!", buffer.getString(0));
+        }
+    }
+
+    @Test
+    void reapCompletionsIntoBatch() {
+        List<Long> ids = new ArrayList<>();
+        List<Long> completedIds = new ArrayList<>();
+        CompletionBatch batch = new CompletionBatch(2);
+
+        try(FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            ids.add(jUring.prepareRead(fd, 14, 0));
+            ids.add(jUring.prepareRead(fd, 14, 0));
+            ids.add(jUring.prepareRead(fd, 14, 0));
+            jUring.submit();
+
+            while (completedIds.size() < ids.size()) {
+                jUring.reapCompletions(batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    assertEquals(OperationType.READ, batch.type(i));
+                    assertEquals(13, batch.result(i));
+                    completedIds.add(batch.id(i));
+                    batch.freeBuffer(i);
+                }
+                batch.clear();
+            }
+
+            assertThat(completedIds).containsExactlyInAnyOrderElementsOf(ids);
+        }
+    }
+
+    @Test
+    void writeLinkedToFdatasync() throws IOException {
+        Path path = Path.of("src/test/resources/write_file");
+        Files.write(path, "Clean content".getBytes());
+
+        byte[] inputBytes = "Hello, durable".getBytes();
+
+        try(FileDescriptor fd = new FileDescriptor(path.toString(), WRITE, 0)) {
+            long writeId = jUring.prepareWrite(fd, inputBytes, 0, SqeOptions.IOSQE_IO_LINK);
+            long syncId = jUring.prepareFsync(fd, true);
+            jUring.submit();
+
+            Result first = jUring.waitForResult();
+            Result second = jUring.waitForResult();
+
+            assertEquals(writeId, first.id());
+            assertEquals(inputBytes.length, ((WriteResult) first).result());
+            assertEquals(syncId, second.id());
+            assertEquals(0, ((WriteResult) second).result());
+            assertEquals("Hello, durable", Files.readString(path));
+        }
+    }
+
+    @Test
+    void vectoredWriteAndRead() throws IOException {
+        Files.write(Path.of("src/test/resources/write_file"), "Clean content".getBytes());
+
+        try(FileDescriptor writeFd = new FileDescriptor("src/test/resources/write_file", WRITE, 0);
+            FileDescriptor readFd = new FileDescriptor("src/test/resources/write_file", READ, 0);
+            Arena arena = Arena.ofConfined()) {
+
+            MemorySegment header = arena.allocateFrom("Hello, ").asSlice(0, 7);
+            MemorySegment payload = arena.allocateFrom("vectors").asSlice(0, 7);
+
+            long writeId = jUring.prepareWritev(writeFd, new MemorySegment[]{header, payload}, 0);
+            jUring.submit();
+            Result writeResult = jUring.waitForResult();
+            assertEquals(writeId, writeResult.id());
+            assertEquals(14, ((WriteResult) writeResult).result());
+
+            MemorySegment first = arena.allocate(5);
+            MemorySegment second = arena.allocate(9);
+            long readId = jUring.prepareReadv(readFd, new MemorySegment[]{first, second}, 0);
+            jUring.submit();
+            Result readResult = jUring.waitForResult();
+            assertEquals(readId, readResult.id());
+            assertEquals(14, ((ReadResult) readResult).result());
+
+            assertEquals("Hello", new String(first.toArray(JAVA_BYTE)));
+            assertEquals(", vectors", new String(second.toArray(JAVA_BYTE)));
+        }
+    }
+
+    @Test
+    void vectoredFixedWriteAndRead() throws IOException {
+        Files.write(Path.of("src/test/resources/write_file"), "Clean content".getBytes());
+
+        try(FileDescriptor writeFd = new FileDescriptor("src/test/resources/write_file", WRITE, 0);
+            FileDescriptor readFd = new FileDescriptor("src/test/resources/write_file", READ, 0)) {
+
+            MemorySegment registered = jUring.registerBuffers(28, 1)[0];
+            MemorySegment header = registered.asSlice(0, 7);
+            MemorySegment payload = registered.asSlice(7, 7);
+            header.copyFrom(MemorySegment.ofArray("Hello, ".getBytes()));
+            payload.copyFrom(MemorySegment.ofArray("vectors".getBytes()));
+
+            long writeId = jUring.prepareWritevFixed(writeFd, new MemorySegment[]{header, payload}, 0, 0,
+                    RwFlags.of(RwFlags.RWF_DSYNC));
+            jUring.submit();
+            Result writeResult = jUring.waitForResult();
+            assertEquals(writeId, writeResult.id());
+            assertEquals(14, ((WriteResult) writeResult).result());
+            assertEquals("Hello, vectors", Files.readString(Path.of("src/test/resources/write_file")));
+
+            MemorySegment first = registered.asSlice(14, 5);
+            MemorySegment second = registered.asSlice(19, 9);
+            long readId = jUring.prepareReadvFixed(readFd, new MemorySegment[]{first, second}, 0, 0);
+            jUring.submit();
+            Result readResult = jUring.waitForResult();
+            assertEquals(readId, readResult.id());
+            assertEquals(14, ((ReadResult) readResult).result());
+
+            assertEquals("Hello", new String(first.toArray(JAVA_BYTE)));
+            assertEquals(", vectors", new String(second.toArray(JAVA_BYTE)));
+        }
+    }
+
     @Test
     void mixedReadAndWrite() throws IOException {
         Files.write(Path.of("src/test/resources/write_file"), "Clean content".getBytes());
@@ -387,6 +566,124 @@ class JUringTest {
         }
     }
 
+    @Test
+    void readWithBufferRing() {
+        try(FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0);
+            BufferRing bufferRing = jUring.registerBufferRing(1, 2, 32)) {
+
+            for (int round = 0; round < 3; round++) {
+                long id = jUring.prepareRead(fd, bufferRing, 14, 0);
+                jUring.submit();
+                Result result = jUring.waitForResult();
+
+                if (result instanceof PooledReadResult readResult) {
+                    assertEquals(id, readResult.id());
+                    assertEquals(13, readResult.result());
+                    assertThat(readResult.hasBufferId()).isTrue();
+                    assertThat(readResult.bufferId()).isBetween(0, 1);
+                    assertEquals("Hello, World!", new String(readResult.buffer().toArray(JAVA_BYTE)));
+                    readResult.freeBuffer();
+                } else {
+                    fail("Result is not a PooledReadResult");
+                }
+            }
+        }
+    }
+
+    @Test
+    void leasedBufferIsReturnedWhenResultIsClosed() throws Exception {
+        try(FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            FixedBufferPool pool = jUring.registerBufferPool(20, 1);
+
+            FixedBufferPool.Lease lease = pool.lease();
+            long id = jUring.prepareReadFixed(fd, lease, 13, 0);
+            jUring.submit();
+            assertThat(pool.tryLease()).isNull();
+
+            try (PooledReadResult readResult = (PooledReadResult) jUring.waitForResult()) {
+                assertEquals(id, readResult.id());
+                assertEquals(13, readResult.result());
+                assertEquals("Hello, World!", new String(readResult.buffer().asSlice(0, 13).toArray(JAVA_BYTE)));
+            }
+
+            FixedBufferPool.Lease next = pool.tryLease();
+            assertThat(next).isNotNull();
+            next.close();
+        }
+    }
+
+    @Test
+    void staleLeaseCloseDoesNotFreeTheCurrentHolder() throws InterruptedException {
+        FixedBufferPool pool = jUring.registerBufferPool(20, 1);
+
+        FixedBufferPool.Lease first = pool.lease();
+        first.close();
+        FixedBufferPool.Lease second = pool.lease();
+        assertEquals(first.bufferIndex(), second.bufferIndex());
+
+        // closes the same lease from many threads, only one of them may release the buffer
+        AtomicInteger released = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> closers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            closers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                    second.close();
+                    released.incrementAndGet();
+                } catch (IllegalStateException | InterruptedException alreadyClosed) {
+                    // another thread closed it first
+                }
+            }));
+            closers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                    first.close();
+                    released.incrementAndGet();
+                } catch (IllegalStateException | InterruptedException alreadyClosed) {
+                    // a stale lease
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread closer : closers) {
+            closer.join();
+        }
+
+        assertEquals(1, released.get());
+        FixedBufferPool.Lease third = pool.tryLease();
+        assertThat(third).isNotNull();
+        assertThat(pool.tryLease()).isNull();
+        assertThrows(IllegalStateException.class, second::close);
+        third.close();
+    }
+
+    @Test
+    void leasesAreReusedWithoutLosingStaleCloses() {
+        FixedBufferPool pool = jUring.registerBufferPool(20, 1);
+
+        FixedBufferPool.Lease first = pool.lease();
+        first.close();
+        FixedBufferPool.Lease second = pool.lease();
+        second.close();
+        FixedBufferPool.Lease third = pool.lease();
+
+        assertThat(third).isSameAs(first);
+        assertThrows(IllegalStateException.class, second::close);
+        third.close();
+    }
+
+    @Test
+    void rejectedBufferRegistrationKeepsTheRegisteredBuffers() {
+        MemorySegment[] registered = jUring.registerBuffers(20, 1);
+
+        // the kernel refuses to register buffers while others are registered
+        assertThrows(RuntimeException.class, () -> jUring.registerBuffers(40, 2));
+
+        assertThat(jUring.registeredBuffer(0)).isEqualTo(registered[0]);
+        assertThrows(IllegalArgumentException.class, () -> jUring.registeredBuffer(1));
+    }
+
     @Test
     void prepareReadFixedWithRegisteredFileAndBuffer() {
         try(FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
@@ -413,6 +710,515 @@ class JUringTest {
         }
     }
 
+    @Test
+    void chainOpensReadsAndClosesWithOneResult() {
+        jUring.registerFilesSparse(1);
+        jUring.registerBuffers(20, 1);
+
+        long id = jUring.chain()
+                .openDirect("src/test/resources/read_file", READ.getValue(), 0, 0)
+                .readFixed(0, 13, 0, 0)
+                .closeDirect(0)
+                .skipIntermediateCompletions()
+                .prepare();
+        jUring.submit();
+
+        Result result = jUring.waitForResult();
+        if (result instanceof ChainResult chainResult) {
+            assertEquals(id, chainResult.id());
+            assertThat(chainResult.succeeded()).isTrue();
+            assertEquals(13, chainResult.result());
+        } else {
+            fail("Result is not a ChainResult");
+        }
+    }
+
+    @Test
+    void chainReportsTheFailedStep() {
+        jUring.registerFilesSparse(1);
+        jUring.registerBuffers(20, 1);
+
+        long id = jUring.chain()
+                .openDirect("src/test/resources/does_not_exist", READ.getValue(), 0, 0)
+                .readFixed(0, 13, 0, 0)
+                .closeDirect(0)
+                .prepare();
+        jUring.submit();
+
+        Result result = jUring.waitForResult();
+        if (result instanceof ChainResult chainResult) {
+            assertEquals(id, chainResult.id());
+            assertEquals(0, chainResult.failedStep());
+            assertThat(chainResult.result()).isNegative();
+        } else {
+            fail("Result is not a ChainResult");
+        }
+    }
+
+    @Test
+    void chainIsLimitedTo255Operations() {
+        Chain chain = jUring.chain();
+        for (int i = 0; i < 255; i++) {
+            chain.closeDirect(0);
+        }
+        assertThrows(IllegalStateException.class, () -> chain.closeDirect(0));
+    }
+
+    @Test
+    void statxReturnsSizeAndInode() throws IOException {
+        Path path = Path.of("src/test/resources/read_file");
+        long id = jUring.prepareStatx(path.toString());
+        jUring.submit();
+
+        Result result = jUring.waitForResult();
+        if (result instanceof StatxResult statx) {
+            assertEquals(id, statx.id());
+            assertEquals(0, statx.result());
+            assertEquals(Files.size(path), statx.size());
+            assertEquals(Files.getAttribute(path, "unix:ino"), statx.inode());
+            assertEquals(Files.getLastModifiedTime(path).toInstant(), statx.mtime());
+            assertThat(statx.blksize()).isPositive();
+        } else {
+            fail("Result is not a StatxResult");
+        }
+    }
+
+    @Test
+    void readAllReturnsBufferSizedToFile() throws IOException {
+        Path path = Path.of("src/test/resources/read_file");
+        jUring.registerFilesSparse(1);
+
+        long id = jUring.prepareReadAll(path.toString(), 0);
+        jUring.submit();
+
+        Result result = jUring.waitForResult();
+        if (result instanceof ReadResult(long rId, MemorySegment buffer, long rResult)) {
+            assertEquals(id, rId);
+            assertEquals(Files.size(path), rResult);
+            assertEquals(Files.size(path), buffer.byteSize());
+            assertArrayEquals(Files.readAllBytes(path), buffer.toArray(JAVA_BYTE));
+            ((ReadResult) result).freeBuffer();
+        } else {
+            fail("Result is not a ReadResult");
+        }
+    }
+
+    @Test
+    void readAllOfFileLargerThanOneReadFails(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("large_file");
+        // sparse, so the file takes no space on disk
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(0x7FFF0000L + 1);
+        }
+        jUring.registerFilesSparse(1);
+
+        long id = jUring.prepareReadAll(path.toString(), 0);
+        jUring.submit();
+
+        ReadResult result = (ReadResult) jUring.waitForResult();
+        assertEquals(id, result.id());
+        assertEquals(-27, result.result());
+    }
+
+    @Test
+    void readAllOfMissingFileFails() {
+        jUring.registerFilesSparse(1);
+
+        long id = jUring.prepareReadAll("src/test/resources/does_not_exist", 0);
+        jUring.submit();
+
+        ReadResult result = (ReadResult) jUring.waitForResult();
+        assertEquals(id, result.id());
+        assertThat(result.result()).isNegative();
+    }
+
+    @Test
+    void copyWithSpliceThroughPipes(@TempDir Path dir) throws IOException {
+        byte[] content = new byte[3 * (1 << 16) + 123];
+        new Random(42).nextBytes(content);
+
+        byte[] copied = copyFile(dir, content, (in, out) ->
+                assertEquals(content.length, jUring.copy(in, out, 0, content.length, 1 << 16, 2)));
+
+        assertArrayEquals(content, copied);
+    }
+
+    @Test
+    void copyWithSpliceResumesAfterShortSplice(@TempDir Path dir) throws IOException {
+        byte[] content = new byte[(1 << 16) + 123];
+        new Random(3).nextBytes(content);
+
+        // the range ends past the end of the file, so the last splice into the pipe is short and breaks its link
+        byte[] copied = copyFile(dir, content, (in, out) -> {
+            IOException e = assertThrows(IOException.class, () -> jUring.copy(in, out, 0, content.length + 1000, 1 << 16, 2));
+            assertThat(e.getMessage()).startsWith("Source ended");
+        });
+
+        assertArrayEquals(content, copied);
+    }
+
+    @Test
+    void copyThroughRegisteredBuffers(@TempDir Path dir) throws IOException {
+        byte[] content = new byte[3 * (1 << 16) + 123];
+        new Random(7).nextBytes(content);
+        jUring.registerBuffers(1 << 16, 2);
+
+        byte[] copied = copyFile(dir, content, (in, out) ->
+                assertEquals(content.length, jUring.copyFixed(in, out, 0, content.length, 0, 2)));
+
+        assertArrayEquals(content, copied);
+    }
+
+    @Test
+    void copyThroughRegisteredBuffersResumesAfterShortRead(@TempDir Path dir) throws IOException {
+        byte[] content = new byte[(1 << 16) + 123];
+        new Random(11).nextBytes(content);
+        jUring.registerBuffers(1 << 16, 2);
+
+        // the range ends past the end of the file, so the last read is short and cancels its linked write
+        byte[] copied = copyFile(dir, content, (in, out) -> {
+            IOException e = assertThrows(IOException.class, () -> jUring.copyFixed(in, out, 0, content.length + 1000, 0, 2));
+            assertThat(e.getMessage()).startsWith("Source ended");
+        });
+
+        assertArrayEquals(content, copied);
+    }
+
+    /**
+     * Writes {@code content} to a source file, runs the copy into an empty target file and returns what the target holds.
+     */
+    private static byte[] copyFile(Path dir, byte[] content, Copy copy) throws IOException {
+        Path source = dir.resolve("copy_source");
+        Path target = dir.resolve("copy_target");
+        Files.write(source, content);
+        Files.write(target, new byte[0]);
+
+        try (FileDescriptor in = new FileDescriptor(source.toString(), READ, 0);
+             FileDescriptor out = new FileDescriptor(target.toString(), WRITE, 0)) {
+            copy.copy(in, out);
+        }
+        return Files.readAllBytes(target);
+    }
+
+    private interface Copy {
+        void copy(FileDescriptor in, FileDescriptor out) throws IOException;
+    }
+
+    @Test
+    void linkTimeoutCancelsStalledRead() {
+        int[] pipe = NativeDispatcher.C.pipe(0);
+        try (FileDescriptor readEnd = new FileDescriptor(pipe[0]); FileDescriptor writeEnd = new FileDescriptor(pipe[1])) {
+            long id = jUring.prepareRead(readEnd, 16, 0);
+            jUring.prepareLinkTimeout(Duration.ofMillis(10));
+            jUring.submit();
+
+            ReadResult result = (ReadResult) jUring.waitForResult();
+            assertEquals(id, result.id());
+            assertEquals(-125, result.result());
+            result.freeBuffer();
+        }
+    }
+
+    @Test
+    void linkTimeoutIsNotSplitFromItsOperationByADueBatch() {
+        try (JUring batching = new JUring(RingConfig.builder(8).batchPolicy(BatchPolicy.of(1)).build());
+             FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            // the batch of one is due once the read is prepared, the timeout still joins it before it is submitted
+            long id = batching.prepareRead(fd, 14, 0);
+            batching.prepareLinkTimeout(Duration.ofSeconds(1));
+            assertEquals(0, batching.submitStats().submits());
+
+            batching.submit();
+            ReadResult result = (ReadResult) batching.waitForResult();
+            assertEquals(id, result.id());
+            assertEquals(13, result.result());
+            result.freeBuffer();
+        }
+    }
+
+    @Test
+    void linkTimeoutAfterSubmitIsRejected() {
+        try (FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            long id = jUring.prepareRead(fd, 14, 0);
+            jUring.submit();
+            assertThrows(IllegalStateException.class, () -> jUring.prepareLinkTimeout(Duration.ofSeconds(1)));
+
+            ReadResult result = (ReadResult) jUring.waitForResult();
+            assertEquals(id, result.id());
+            assertEquals(13, result.result());
+            result.freeBuffer();
+        }
+    }
+
+    @Test
+    void cancelStalledRead() {
+        int[] pipe = NativeDispatcher.C.pipe(0);
+        try (FileDescriptor readEnd = new FileDescriptor(pipe[0]); FileDescriptor writeEnd = new FileDescriptor(pipe[1])) {
+            long readId = jUring.prepareRead(readEnd, 16, 0);
+            jUring.submit();
+            long cancelId = jUring.prepareCancel(readId);
+            jUring.submit();
+
+            List<Result> results = List.of(jUring.waitForResult(), jUring.waitForResult());
+            for (Result result : results) {
+                if (result instanceof ReadResult read) {
+                    assertEquals(readId, read.id());
+                    assertEquals(-125, read.result());
+                    read.freeBuffer();
+                } else if (result instanceof CancelResult cancel) {
+                    assertEquals(cancelId, cancel.id());
+                    assertEquals(0, cancel.result());
+                } else {
+                    fail("Unexpected result " + result);
+                }
+            }
+        }
+    }
+
+    @Test
+    void timeoutExpires() {
+        long id = jUring.prepareTimeout(Duration.ofMillis(5));
+        jUring.submit();
+
+        TimeoutResult result = (TimeoutResult) jUring.waitForResult();
+        assertEquals(id, result.id());
+        assertThat(result.expired()).isTrue();
+    }
+
+    @Test
+    void ringFromConfig() {
+        RingConfig config = RingConfig.builder(8)
+                .flags(IORING_SETUP_SINGLE_ISSUER)
+                .cqEntries(64)
+                .build();
+
+        try (JUring configured = new JUring(config);
+             FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            assertThat(configured.supports(RingFeature.IORING_FEAT_NODROP)).isTrue();
+
+            // more reads than the submission queue holds, the larger completion queue keeps them in flight
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                ids.add(configured.prepareRead(fd, 14, 0));
+                if ((i + 1) % 8 == 0) {
+                    configured.submit();
+                }
+            }
+
+            for (int i = 0; i < ids.size(); i++) {
+                ReadResult result = (ReadResult) configured.waitForResult();
+                assertThat(ids).contains(result.id());
+                assertEquals(13, result.result());
+                result.freeBuffer();
+            }
+        }
+    }
+
+    @Test
+    void sqPollSkipsEnterWhileThreadIsAwake() throws InterruptedException {
+        RingConfig config = RingConfig.builder(8)
+                .sqPoll(Duration.ofMillis(50))
+                .build();
+
+        try (JUring polled = new JUring(config);
+             FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            for (int i = 0; i < 10; i++) {
+                polled.prepareRead(fd, 14, 0);
+                polled.submit();
+                ReadResult result = (ReadResult) polled.waitForResult();
+                assertEquals(13, result.result());
+                result.freeBuffer();
+            }
+            assertThat(polled.submitStats().entersAvoided()).isPositive();
+
+            // once the thread went to sleep the next submit has to wake it up
+            Thread.sleep(200);
+            long enters = polled.submitStats().enters();
+            polled.prepareRead(fd, 14, 0);
+            polled.submit();
+            ReadResult result = (ReadResult) polled.waitForResult();
+            assertEquals(13, result.result());
+            result.freeBuffer();
+
+            assertEquals(11, polled.submitStats().submits());
+            assertEquals(enters + 1, polled.submitStats().enters());
+        }
+    }
+
+    @Test
+    void threadConfinedRing() {
+        RingConfig config = RingConfig.builder(8)
+                .threadConfined()
+                .build();
+
+        try (JUring confined = new JUring(config);
+             FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            long id = confined.prepareRead(fd, 14, 0);
+            confined.submit();
+
+            List<Result> results = confined.peekForBatchResult(1);
+            while (results.isEmpty()) {
+                confined.processEvents();
+                results = confined.peekForBatchResult(1);
+            }
+            ReadResult result = (ReadResult) results.getFirst();
+            assertEquals(id, result.id());
+            assertEquals(13, result.result());
+            result.freeBuffer();
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> CompletableFuture.runAsync(confined::submit).get());
+            assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void registeredRingFd() {
+        RingConfig config = RingConfig.builder(8)
+                .registerRingFd()
+                .build();
+
+        try (JUring registered = new JUring(config);
+             FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            assertThat(registered.ringFdRegistered()).isTrue();
+
+            long id = registered.prepareRead(fd, 14, 0);
+            registered.submit();
+            ReadResult result = (ReadResult) registered.waitForResult();
+            assertEquals(id, result.id());
+            assertEquals(13, result.result());
+            result.freeBuffer();
+        }
+    }
+
+    @Test
+    void sqPollWakeupEntersThroughRegisteredIndex() throws InterruptedException {
+        RingConfig config = RingConfig.builder(8)
+                .sqPoll(Duration.ofMillis(50))
+                .registerRingFd()
+                .build();
+
+        try (JUring registered = new JUring(config);
+             FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            assertThat(registered.ringFdRegistered()).isTrue();
+            assertThat(registered.ioUring().enterRingFd()).isNotEqualTo(registered.ioUring().ringFd());
+
+            // the idle thread is only woken up by an enter, which fails unless it passes the registered index
+            Thread.sleep(200);
+            long enters = registered.submitStats().enters();
+            long id = registered.prepareRead(fd, 14, 0);
+            registered.submit();
+            ReadResult result = (ReadResult) registered.waitForResult();
+            assertEquals(id, result.id());
+            assertEquals(13, result.result());
+            result.freeBuffer();
+
+            assertEquals(enters + 1, registered.submitStats().enters());
+        }
+    }
+
+    @Test
+    void submitAndWaitReturnsResults() {
+        try (FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            long first = jUring.prepareRead(fd, 14, 0);
+            long second = jUring.prepareRead(fd, 5, 0);
+
+            List<Result> results = new ArrayList<>(jUring.submitAndWait(2));
+            assertEquals(2, results.size());
+            assertThat(results).extracting(Result::id).containsExactlyInAnyOrder(first, second);
+            results.forEach(result -> ((ReadResult) result).freeBuffer());
+        }
+    }
+
+    @Test
+    void submitAndReapHandsCompletionsToHandler() {
+        try (FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            long id = jUring.prepareRead(fd, 14, 0);
+            List<Long> completed = new ArrayList<>();
+
+            int handled = jUring.submitAndReap((completedId, result, flags) -> {
+                assertEquals(13, result);
+                completed.add(completedId);
+            }, 1, Duration.ofSeconds(5));
+
+            assertEquals(1, handled);
+            assertEquals(List.of(id), completed);
+
+            // nothing in flight, so the wait ends at the timeout
+            assertEquals(0, jUring.submitAndReap((completedId, result, flags) -> fail(), 1, Duration.ofMillis(10)));
+        }
+    }
+
+    @Test
+    void fullSubmissionQueueIsSubmitted() {
+        try (JUring small = new JUring(4);
+             FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            for (int i = 0; i < 6; i++) {
+                small.prepareRead(fd, 14, 0);
+            }
+            assertEquals(1, small.flushStats().full());
+
+            // the two reads that did not fit are submitted before waiting
+            List<Result> results = collect(small, 6);
+            assertEquals(1, small.flushStats().waited());
+            results.forEach(result -> {
+                assertEquals(13, result.result());
+                ((ReadResult) result).freeBuffer();
+            });
+        }
+    }
+
+    @Test
+    void adaptiveBatchesGrowUnderLoadAndShrinkWhenIdle() throws InterruptedException {
+        RingConfig config = RingConfig.builder(32)
+                .batchPolicy(BatchPolicy.adaptive(2, 8, Duration.ofMillis(200)))
+                .build();
+
+        try (JUring batching = new JUring(config);
+             FileDescriptor fd = new FileDescriptor("src/test/resources/read_file", READ, 0)) {
+            // a batch is submitted when the request after it starts, batches of 2 and 4 fill up within 7 requests
+            prepareReads(batching, fd, 7);
+            assertEquals(2, batching.submitStats().submits());
+            assertEquals(2, batching.flushStats().size());
+
+            // so the next batch waits for 8 requests
+            prepareReads(batching, fd, 7);
+            assertEquals(2, batching.submitStats().submits());
+            prepareReads(batching, fd, 1);
+            assertEquals(3, batching.submitStats().submits());
+            assertEquals(3, batching.flushStats().size());
+
+            // the next request submits the one that waited longer than the max age, which halves the batch to 4
+            Thread.sleep(250);
+            prepareReads(batching, fd, 1);
+            assertEquals(4, batching.submitStats().submits());
+            assertEquals(1, batching.flushStats().age());
+
+            prepareReads(batching, fd, 3);
+            assertEquals(4, batching.submitStats().submits());
+            prepareReads(batching, fd, 1);
+            assertEquals(5, batching.submitStats().submits());
+            assertEquals(4, batching.flushStats().size());
+
+            List<Result> results = collect(batching, 20);
+            assertEquals(0, batching.flushStats().explicit());
+            results.forEach(result -> ((ReadResult) result).freeBuffer());
+        }
+    }
+
+    private static void prepareReads(JUring ring, FileDescriptor fd, int count) {
+        for (int i = 0; i < count; i++) {
+            ring.prepareRead(fd, 14, 0);
+        }
+    }
+
+    private static List<Result> collect(JUring ring, int count) {
+        List<Result> results = new ArrayList<>();
+        while (results.size() < count) {
+            results.addAll(ring.waitForBatchResult(count - results.size()));
+        }
+        return results;
+    }
+
     @Test
     void prepareOpenAndRead() {
         long openId = jUring.prepareOpen("src/test/resources/read_file", READ.getValue(), 0);
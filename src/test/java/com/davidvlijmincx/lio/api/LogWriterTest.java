@@ -0,0 +1,119 @@
+package com.davidvlijmincx.lio.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogWriterTest {
+
+    @Test
+    void appendsFromManyThreadsAreCommittedInGroups(@TempDir Path dir) throws IOException, InterruptedException {
+        Path path = dir.resolve("log_file");
+
+        int threads = 8;
+        int appendsPerThread = 100;
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+
+        try (LogWriter log = new LogWriter(path, 4096, 2)) {
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                byte[] record = ("record-" + t + "\n").getBytes();
+                producers.add(Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < appendsPerThread; i++) {
+                        var future = log.append(record);
+                        synchronized (futures) {
+                            futures.add(future);
+                        }
+                    }
+                }));
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+            LogWriter.Metrics metrics = log.metrics();
+            assertEquals(threads * appendsPerThread, metrics.appends());
+            assertEquals(Files.size(path), metrics.bytes());
+            assertTrue(metrics.groups() <= metrics.appends());
+            assertTrue(metrics.maxBatchSize() >= metrics.averageBatchSize());
+        }
+
+        byte[] content = Files.readAllBytes(path);
+        assertEquals(threads * appendsPerThread * "record-0\n".length(), content.length);
+        for (CompletableFuture<Long> future : futures) {
+            int position = Math.toIntExact(future.join());
+            assertEquals("record-", new String(content, position, 7));
+            assertEquals('\n', content[position + 8]);
+        }
+    }
+
+    @Test
+    void appendLargerThanGroupIsRejected(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("log_file");
+
+        try (LogWriter log = new LogWriter(path, 16, 1)) {
+            assertThrows(IllegalArgumentException.class, () -> log.append(new byte[17]));
+            assertEquals(0L, log.append(new byte[16]).join());
+        }
+    }
+
+    @Test
+    void groupsAreAcknowledgedInOrder(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("log_file");
+
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        AtomicBoolean outOfOrder = new AtomicBoolean();
+        try (LogWriter log = new LogWriter(path, 64, 4)) {
+            for (int i = 0; i < 500; i++) {
+                CompletableFuture<Long> previous = futures.isEmpty() ? null : futures.getLast();
+                CompletableFuture<Long> future = log.append(new byte[32]);
+                future.thenRun(() -> {
+                    if (previous != null && !previous.isDone()) {
+                        outOfOrder.set(true);
+                    }
+                });
+                futures.add(future);
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        }
+
+        assertFalse(outOfOrder.get());
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(i * 32L, futures.get(i).join());
+        }
+    }
+
+    @Test
+    void appendRacingCloseIsCommittedOrRejected(@TempDir Path dir) throws IOException, InterruptedException {
+        Path path = dir.resolve("log_file");
+
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        LogWriter log = new LogWriter(path, 4096, 2);
+        Thread producer = Thread.ofPlatform().start(() -> {
+            try {
+                while (true) {
+                    futures.add(log.append(new byte[8]));
+                }
+            } catch (IllegalStateException closed) {
+                // the writer was closed
+            }
+        });
+        Thread.sleep(20);
+        log.close();
+        producer.join();
+
+        for (CompletableFuture<Long> future : futures) {
+            assertTrue(future.isDone());
+        }
+    }
+}